@@ -0,0 +1,513 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Dictionary that chooses its representation by size and workload.
+ * <p>
+ * An AdaptiveDictionary starts as SortedArrayDictionary. It counts reads (search),
+ * writes (insert, remove) and ordered operations (navigation, range) and decides after every
+ * SAMPLE_SIZE operations (a sample window) which representation fits best:
+ * <ul>
+ * <li>SORTED_ARRAY for small dictionaries (up to SMALL_SIZE entries), and for read-mostly
+ * dictionaries (at most 1% writes) that are used with ordered operations; a hash moves there
+ * via the tree, since inserting its unordered keys into the array would take O(n) each,</li>
+ * <li>TREE (BinaryTreeDictionary) if more than 1% of the operations are ordered,</li>
+ * <li>HASH (HashDictionary) otherwise.</li>
+ * </ul>
+ * The representation is changed only if two consecutive windows choose the same new one, and
+ * a dictionary that has grown beyond SMALL_SIZE returns to SORTED_ARRAY only after shrinking to half of it.
+ * <p>
+ * A change of representation is spread over the following operations: the old representation is no
+ * longer changed, new writes go to the new representation and each operation moves MIGRATE_STEP
+ * entries of the old one. Until the migration is finished, search looks into both;
+ * keys removed during the migration are remembered, so that their old entries are not moved.
+ * <p>
+ * Ordered operations and iteration are answered from both halves of a running migration:
+ * an ordered half is asked and iterated in place, a hash half is scanned in O(n). Iterators copy a
+ * hash half and build a heap in O(n), taking O(log n) per entry, so the sort is spread over the
+ * iteration; cursor() allocates only for such a hash half.
+ * In the hash representation ordered operations are only counted and answered by a scan; a change
+ * to the tree is left to the sample windows. While a hash half is involved in a migration, each
+ * ordered operation moves size/ORDERED_MIGRATE_SHARE entries in addition, so that the O(n) scans
+ * end after a bounded number of ordered operations.
+ * forEach visits the entries in key order like iterator(), but does not change the representation.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class AdaptiveDictionary<K extends Comparable<K>, V> implements OrderedDictionary<K, V> {
+
+    /**
+     * Representation of an AdaptiveDictionary.
+     */
+    public enum Representation {SORTED_ARRAY, HASH, TREE}
+
+    private static final int SAMPLE_SIZE = 4096;
+    private static final int SMALL_SIZE = 128;
+    private static final int MIGRATE_STEP = 8;
+    private static final int ORDERED_MIGRATE_SHARE = 32;
+
+    private Representation representation = Representation.SORTED_ARRAY;
+    private Dictionary<K, V> current = new SortedArrayDictionary<>();
+    private int size = 0;
+
+    // Umzug: old wird nicht mehr geaendert, moving laeuft ueber old
+    private Dictionary<K, V> old = null;
+    private Iterator<Dictionary.Entry<K, V>> moving = null;
+    private HashDictionary<K, Boolean> deleted = null;     // waehrend des Umzugs geloeschte Schluessel
+
+    private int reads = 0;
+    private int writes = 0;
+    private int ordered = 0;
+    private Representation candidate = null;               // Ziel des letzten Fensters
+    private long migrations = 0;
+
+    @Override
+    public V search(K key) {
+        V value = current.search(key);
+        if (value == null && old != null && deleted.search(key) == null) {
+            value = old.search(key);
+        }
+        reads++;
+        step();
+        return value;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        V oldValue = current.insert(key, value);
+        if (oldValue == null && old != null && deleted.remove(key) == null) {
+            oldValue = old.search(key);
+        }
+        if (oldValue == null) {
+            size++;
+        }
+        writes++;
+        step();
+        return oldValue;
+    }
+
+    @Override
+    public V remove(K key) {
+        V oldValue = current.remove(key);
+        if (old != null && deleted.search(key) == null) {
+            V v = old.search(key);
+            if (v != null) {
+                deleted.insert(key, Boolean.TRUE);
+                if (oldValue == null) {
+                    oldValue = v;
+                }
+            }
+        }
+        if (oldValue != null) {
+            size--;
+        }
+        writes++;
+        step();
+        return oldValue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Moves some entries of a running migration and adapts the representation after SAMPLE_SIZE operations.
+     */
+    private void step() {
+        if (old != null) {
+            migrate(MIGRATE_STEP);
+        }
+        if (reads + writes + ordered >= SAMPLE_SIZE) {
+            adapt();
+        }
+    }
+
+    private void adapt() {
+        int total = reads + writes + ordered;
+        Representation target;
+        if (size <= (representation == Representation.SORTED_ARRAY ? SMALL_SIZE : SMALL_SIZE / 2)) {
+            target = Representation.SORTED_ARRAY;
+        } else if (ordered * 100 > total) {
+            // aus dem Hash erst in den Baum: dessen Umzug fuellt das Array von vorn nach hinten
+            target = (writes * 100 <= total && representation != Representation.HASH)
+                    ? Representation.SORTED_ARRAY : Representation.TREE;
+        } else {
+            target = Representation.HASH;
+        }
+        reads = 0;
+        writes = 0;
+        ordered = 0;
+        if (target == representation) {
+            candidate = null;
+        } else if (old == null && target == candidate) {
+            candidate = null;
+            startMigration(target);
+        } else {
+            candidate = target;
+        }
+    }
+
+    private void startMigration(Representation target) {
+        old = current;
+        moving = old.cursor();
+        deleted = new HashDictionary<>();
+        representation = target;
+        switch (target) {
+            case SORTED_ARRAY:
+                current = new SortedArrayDictionary<>();
+                break;
+            case TREE:
+                current = new BinaryTreeDictionary<>();
+                break;
+            default:
+                current = new HashDictionary<>();
+        }
+        migrations++;
+    }
+
+    /**
+     * Moves up to n entries from old to current.
+     */
+    private void migrate(int n) {
+        for (int i = 0; i < n && moving.hasNext(); i++) {
+            Dictionary.Entry<K, V> e = moving.next();
+            K key = e.getKey();
+            // neuere Eintraege und geloeschte Schluessel haben Vorrang
+            if (deleted.search(key) == null && current.search(key) == null) {
+                current.insert(key, e.getValue());
+            }
+        }
+        if (!moving.hasNext()) {
+            old = null;
+            moving = null;
+            deleted = null;
+        }
+    }
+
+    /**
+     * Counts an ordered operation; a migration from or to a hash is advanced by size/ORDERED_MIGRATE_SHARE entries.
+     */
+    private void orderedAccess() {
+        ordered++;
+        step();
+        if (old != null && !(isOrdered(old) && isOrdered(current))) {
+            migrate(Math.max(MIGRATE_STEP, size / ORDERED_MIGRATE_SHARE));
+        }
+    }
+
+    private static boolean isOrdered(Dictionary<?, ?> d) {
+        return d instanceof OrderedDictionary;
+    }
+
+    /** Returns true if the entries are in one ordered representation. */
+    private boolean isSingleOrdered() {
+        return old == null && isOrdered(current);
+    }
+
+    private enum Bound {FIRST, LAST, FLOOR, CEILING, HIGHER, LOWER}
+
+    /**
+     * Looks up the bound in both halves; keys of old that were removed during the migration are skipped.
+     */
+    private K bound(K key, Bound bound) {
+        K k = bound(current, null, key, bound);
+        if (old != null) {
+            K o = bound(old, deleted, key, bound);
+            boolean up = (bound == Bound.FIRST || bound == Bound.CEILING || bound == Bound.HIGHER);
+            if (k == null || (o != null && (up ? o.compareTo(k) < 0 : o.compareTo(k) > 0))) {
+                k = o;
+            }
+        }
+        return k;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K bound(Dictionary<K, V> d, HashDictionary<K, Boolean> skip, K key, Bound bound) {
+        if (isOrdered(d)) {
+            OrderedDictionary<K, V> od = (OrderedDictionary<K, V>) d;
+            K k;
+            switch (bound) {
+                case FIRST: k = od.firstKey(); break;
+                case LAST: k = od.lastKey(); break;
+                case FLOOR: k = od.floor(key); break;
+                case CEILING: k = od.ceiling(key); break;
+                case HIGHER: k = od.higher(key); break;
+                default: k = od.lower(key);
+            }
+            boolean up = (bound == Bound.FIRST || bound == Bound.CEILING || bound == Bound.HIGHER);
+            while (k != null && skip != null && skip.search(k) != null) {
+                k = up ? od.higher(k) : od.lower(k);
+            }
+            return k;
+        }
+        // Hash: alle Schluessel durchsuchen
+        K best = null;
+        for (Iterator<Dictionary.Entry<K, V>> it = d.cursor(); it.hasNext(); ) {
+            K k = it.next().getKey();
+            if (skip != null && skip.search(k) != null) {
+                continue;
+            }
+            switch (bound) {
+                case FIRST:
+                    if (best == null || k.compareTo(best) < 0) best = k;
+                    break;
+                case LAST:
+                    if (best == null || k.compareTo(best) > 0) best = k;
+                    break;
+                case FLOOR:
+                    if (k.compareTo(key) <= 0 && (best == null || k.compareTo(best) > 0)) best = k;
+                    break;
+                case CEILING:
+                    if (k.compareTo(key) >= 0 && (best == null || k.compareTo(best) < 0)) best = k;
+                    break;
+                case HIGHER:
+                    if (k.compareTo(key) > 0 && (best == null || k.compareTo(best) < 0)) best = k;
+                    break;
+                default:
+                    if (k.compareTo(key) < 0 && (best == null || k.compareTo(best) > 0)) best = k;
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public K firstKey() {
+        orderedAccess();
+        return bound(null, Bound.FIRST);
+    }
+
+    @Override
+    public K lastKey() {
+        orderedAccess();
+        return bound(null, Bound.LAST);
+    }
+
+    @Override
+    public K floor(K key) {
+        orderedAccess();
+        return bound(key, Bound.FLOOR);
+    }
+
+    @Override
+    public K ceiling(K key) {
+        orderedAccess();
+        return bound(key, Bound.CEILING);
+    }
+
+    @Override
+    public K higher(K key) {
+        orderedAccess();
+        return bound(key, Bound.HIGHER);
+    }
+
+    @Override
+    public K lower(K key) {
+        orderedAccess();
+        return bound(key, Bound.LOWER);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<Dictionary.Entry<K, V>> range(K fromKey, K toKey) {
+        orderedAccess();
+        if (isSingleOrdered()) {
+            return ((OrderedDictionary<K, V>) current).range(fromKey, toKey);
+        }
+        return view(fromKey, toKey, null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        orderedAccess();
+        return isSingleOrdered() ? current.iterator() : view(null, null, null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        orderedAccess();
+        return isSingleOrdered() ? current.cursor() : view(null, null, new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (isSingleOrdered()) {
+            current.forEach(action);
+            return;
+        }
+        for (Iterator<Dictionary.Entry<K, V>> it = view(null, null, new Dictionary.Entry<>(null, null)); it.hasNext(); ) {
+            Dictionary.Entry<K, V> e = it.next();
+            action.accept(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Returns the entries of both halves with keys in [fromKey, toKey) (a null bound is unbounded)
+     * in ascending order; for equal keys the entry of current wins.
+     * @param cursor Entry that is reused for every entry, or null for a new Entry per entry.
+     */
+    private Iterator<Dictionary.Entry<K, V>> view(K fromKey, K toKey, Dictionary.Entry<K, V> cursor) {
+        Iterator<Dictionary.Entry<K, V>> b = (old != null) ? sorted(old, fromKey, toKey) : Collections.emptyIterator();
+        return new MergeIterator(sorted(current, fromKey, toKey), b, deleted, cursor);
+    }
+
+    /**
+     * Iterates an ordered dictionary in place; a hash is copied (it is changed by the migration) and sorted by a heap.
+     */
+    @SuppressWarnings("unchecked")
+    private Iterator<Dictionary.Entry<K, V>> sorted(Dictionary<K, V> d, K fromKey, K toKey) {
+        if (isOrdered(d)) {
+            return (fromKey != null || toKey != null) ? ((OrderedDictionary<K, V>) d).range(fromKey, toKey) : d.cursor();
+        }
+        List<Dictionary.Entry<K, V>> list = new ArrayList<>();
+        for (Iterator<Dictionary.Entry<K, V>> it = d.cursor(); it.hasNext(); ) {
+            Dictionary.Entry<K, V> e = it.next();
+            K k = e.getKey();
+            if ((fromKey == null || k.compareTo(fromKey) >= 0) && (toKey == null || k.compareTo(toKey) < 0)) {
+                list.add(new Dictionary.Entry<>(k, e.getValue()));
+            }
+        }
+        return new HeapIterator<>(list);
+    }
+
+    /**
+     * Returns the entries of a list in ascending key order: the heap is built in O(n),
+     * each next takes O(log n).
+     */
+    private static class HeapIterator<K extends Comparable<K>, V> implements Iterator<Dictionary.Entry<K, V>> {
+        private final Dictionary.Entry<K, V>[] heap;
+        private int n;
+
+        @SuppressWarnings("unchecked")
+        HeapIterator(List<Dictionary.Entry<K, V>> list) {
+            heap = list.toArray(new Dictionary.Entry[0]);
+            n = heap.length;
+            for (int i = n / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        private void siftDown(int i) {
+            Dictionary.Entry<K, V> e = heap[i];
+            while (2 * i + 1 < n) {
+                int c = 2 * i + 1;
+                if (c + 1 < n && heap[c + 1].getKey().compareTo(heap[c].getKey()) < 0) {
+                    c++;
+                }
+                if (e.getKey().compareTo(heap[c].getKey()) <= 0) {
+                    break;
+                }
+                heap[i] = heap[c];
+                i = c;
+            }
+            heap[i] = e;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return n > 0;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (n == 0) {
+                throw new NoSuchElementException();
+            }
+            Dictionary.Entry<K, V> e = heap[0];
+            heap[0] = heap[--n];
+            heap[n] = null;
+            if (n > 0) {
+                siftDown(0);
+            }
+            return e;
+        }
+    }
+
+    /**
+     * Merges two ascending iterators; for equal keys the entry of a wins, keys of b in skip are left out.
+     * Key and value are copied, so a and b may be cursors. Keys up to the last returned one are dropped:
+     * the migration inserts into a during the iteration, so that an array iterator can return a key twice.
+     */
+    private class MergeIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private final Iterator<Dictionary.Entry<K, V>> a;
+        private final Iterator<Dictionary.Entry<K, V>> b;
+        private final HashDictionary<K, Boolean> skip;
+        private final Dictionary.Entry<K, V> cursor;  // null: neuer Entry pro next()
+        private K keyA;
+        private V valueA;
+        private K keyB;
+        private V valueB;
+        private K last = null;
+
+        MergeIterator(Iterator<Dictionary.Entry<K, V>> a, Iterator<Dictionary.Entry<K, V>> b,
+                HashDictionary<K, Boolean> skip, Dictionary.Entry<K, V> cursor) {
+            this.a = a;
+            this.b = b;
+            this.skip = skip;
+            this.cursor = cursor;
+            advanceA();
+            advanceB();
+        }
+
+        private void advanceA() {
+            keyA = null;
+            while (a.hasNext()) {
+                Dictionary.Entry<K, V> e = a.next();
+                if (last == null || e.getKey().compareTo(last) > 0) {
+                    keyA = e.getKey();
+                    valueA = e.getValue();
+                    return;
+                }
+            }
+        }
+
+        private void advanceB() {
+            keyB = null;
+            while (b.hasNext()) {
+                Dictionary.Entry<K, V> e = b.next();
+                if ((last == null || e.getKey().compareTo(last) > 0) && (skip == null || skip.search(e.getKey()) == null)) {
+                    keyB = e.getKey();
+                    valueB = e.getValue();
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return keyA != null || keyB != null;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int c = (keyA == null) ? 1 : (keyB == null) ? -1 : keyA.compareTo(keyB);
+            K key = (c <= 0) ? keyA : keyB;
+            V value = (c <= 0) ? valueA : valueB;
+            last = key;
+            if (c <= 0) {
+                advanceA();
+            }
+            if (c >= 0) {
+                advanceB();
+            }
+            return (cursor == null) ? new Dictionary.Entry<>(key, value) : cursor.reset(key, value);
+        }
+    }
+
+    /** Returns the current representation (the target of a running migration). */
+    public Representation getRepresentation() {return representation;}
+
+    /** Returns true while entries are moved to a new representation. */
+    public boolean isMigrating() {return old != null;}
+
+    /** Returns the number of changes of the representation. */
+    public long getMigrations() {return migrations;}
+}
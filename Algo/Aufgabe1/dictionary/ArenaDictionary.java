@@ -0,0 +1,384 @@
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Dictionary for String keys and values that keeps its data outside of the Java heap.
+ * <p>
+ * Keys and values are stored as UTF-8 records (int keyLength, int valueLength, key bytes, value bytes)
+ * in direct ByteBuffers (the arena). The index is a hash table with open addressing
+ * and linear probing whose slots (record reference and hash code) are direct buffers as well.
+ * Strings are only created for the arguments and results of the calls, so the heap
+ * only holds a few objects per arena chunk, independent of the number of entries.
+ * <p>
+ * Replacing a value of a different length and removing an entry leave the old record as garbage.
+ * When more than half of the arena is garbage, the live records are copied into new chunks.
+ * <p>
+ * close() frees the buffers at once (via sun.misc.Unsafe.invokeCleaner from the module jdk.unsupported;
+ * if it is not available, the memory is returned when the buffers are garbage collected).
+ * The old index after a resize and the old chunks after a compaction are freed the same way.
+ * Any further operation throws an IllegalStateException.
+ */
+public class ArenaDictionary implements Dictionary<String, String>, AutoCloseable {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 26;
+    private static final int DEF_CAPACITY = 1 << 10;
+    private static final long EMPTY = 0;
+    private static final long TOMBSTONE = -1;
+
+    // Arena
+    private List<ByteBuffer> chunks = new ArrayList<>();
+    private ByteBuffer current = null;
+    private long used = 0;
+    private long garbage = 0;
+
+    // Index: Referenz (Chunk << 32 | Offset) + 1 und Hashwert je Platz
+    private ByteBuffer refs;
+    private ByteBuffer hashes;
+    private int capacity;
+    private int size = 0;
+    private int tombstones = 0;
+
+    // sun.misc.Unsafe.invokeCleaner gibt einen direkten Buffer sofort frei; null: nicht verfuegbar
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> c = Class.forName("sun.misc.Unsafe");
+            Field f = c.getDeclaredField("theUnsafe");
+            f.setAccessible(true);
+            unsafe = f.get(null);
+            invokeCleaner = c.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Freigabe bleibt dem Garbage Collector ueberlassen
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    public ArenaDictionary() {
+        allocateIndex(DEF_CAPACITY);
+    }
+
+    /**
+     * Frees a direct buffer at once; it must not be used afterwards.
+     */
+    private static void free(ByteBuffer b) {
+        if (INVOKE_CLEANER != null && b != null) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, b);
+            } catch (ReflectiveOperationException e) {
+                // bleibt dem Garbage Collector ueberlassen
+            }
+        }
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("index too large");
+        }
+        return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private void allocateIndex(int cap) {
+        capacity = cap;
+        refs = allocate(8L * cap);
+        hashes = allocate(4L * cap);
+    }
+
+    private void checkOpen() {
+        if (refs == null) {
+            throw new IllegalStateException("dictionary is closed");
+        }
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private long ref(int slot) {
+        return refs.getLong(slot << 3);
+    }
+
+    private ByteBuffer chunk(long ref) {
+        return chunks.get((int) ((ref - 1) >>> 32));
+    }
+
+    private static int offset(long ref) {
+        return (int) (ref - 1);
+    }
+
+    // ---- Arena ----
+
+    private long append(byte[] key, byte[] value) {
+        int need = 8 + key.length + value.length;
+        if (current == null || current.remaining() < need) {
+            if (garbage > used / 2 && size > 0) {
+                compact();
+            }
+            if (current == null || current.remaining() < need) {
+                newChunk(need);
+            }
+        }
+        int off = current.position();
+        current.putInt(key.length).putInt(value.length).put(key).put(value);
+        used += need;
+        return ((long) (chunks.size() - 1) << 32 | off) + 1;
+    }
+
+    private void newChunk(int need) {
+        int chunkSize = (current == null) ? MIN_CHUNK_SIZE : Math.min(MAX_CHUNK_SIZE, 2 * current.capacity());
+        current = allocate(Math.max(chunkSize, need));
+        chunks.add(current);
+    }
+
+    /**
+     * Copies all live records into new chunks and drops the old ones.
+     */
+    private void compact() {
+        List<ByteBuffer> oldChunks = chunks;
+        chunks = new ArrayList<>();
+        current = null;
+        used = 0;
+        garbage = 0;
+        for (int i = 0; i < capacity; i++) {
+            long r = ref(i);
+            if (r != EMPTY && r != TOMBSTONE) {
+                ByteBuffer src = oldChunks.get((int) ((r - 1) >>> 32));
+                int off = offset(r);
+                int len = 8 + src.getInt(off) + src.getInt(off + 4);
+                if (current == null || current.remaining() < len) {
+                    newChunk(len);
+                }
+                int dst = current.position();
+                current.put(dst, src, off, len);
+                current.position(dst + len);
+                used += len;
+                refs.putLong(i << 3, ((long) (chunks.size() - 1) << 32 | dst) + 1);
+            }
+        }
+        for (ByteBuffer b : oldChunks) {
+            free(b);
+        }
+    }
+
+    private int recordSize(long r) {
+        ByteBuffer c = chunk(r);
+        int off = offset(r);
+        return 8 + c.getInt(off) + c.getInt(off + 4);
+    }
+
+    private boolean keyEquals(long r, byte[] key) {
+        ByteBuffer c = chunk(r);
+        int off = offset(r);
+        if (c.getInt(off) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (c.get(off + 8 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String key(long r) {
+        ByteBuffer c = chunk(r);
+        int off = offset(r);
+        byte[] b = new byte[c.getInt(off)];
+        c.get(off + 8, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private String value(long r) {
+        ByteBuffer c = chunk(r);
+        int off = offset(r);
+        int kl = c.getInt(off);
+        byte[] b = new byte[c.getInt(off + 4)];
+        c.get(off + 8 + kl, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    // ---- Index ----
+
+    private int searchSlot(byte[] key, int h) {
+        int mask = capacity - 1;
+        int i = h & mask;
+        long r;
+        while ((r = ref(i)) != EMPTY) {
+            if (r != TOMBSTONE && hashes.getInt(i << 2) == h && keyEquals(r, key)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize() {
+        ByteBuffer oldRefs = refs;
+        ByteBuffer oldHashes = hashes;
+        int oldCapacity = capacity;
+        allocateIndex(size * 2 > oldCapacity * 3 / 4 ? oldCapacity * 2 : oldCapacity);
+        tombstones = 0;
+        int mask = capacity - 1;
+        for (int j = 0; j < oldCapacity; j++) {
+            long r = oldRefs.getLong(j << 3);
+            if (r != EMPTY && r != TOMBSTONE) {
+                int h = oldHashes.getInt(j << 2);
+                int i = h & mask;
+                while (ref(i) != EMPTY) {
+                    i = (i + 1) & mask;
+                }
+                refs.putLong(i << 3, r);
+                hashes.putInt(i << 2, h);
+            }
+        }
+        free(oldRefs);
+        free(oldHashes);
+    }
+
+    @Override
+    public String insert(String key, String value) {
+        checkOpen();
+        byte[] kb = key.getBytes(StandardCharsets.UTF_8);
+        byte[] vb = value.getBytes(StandardCharsets.UTF_8);
+        int h = hash(key);
+        int i = searchSlot(kb, h);
+
+        // key already exists
+        if (i != -1) {
+            long r = ref(i);
+            String oldValue = value(r);
+            ByteBuffer c = chunk(r);
+            int off = offset(r);
+            if (c.getInt(off + 4) == vb.length) {
+                c.put(off + 8 + kb.length, vb);
+            } else {
+                int oldSize = recordSize(r);
+                // append kann kompaktieren und verschiebt dabei auch den alten Eintrag von i
+                refs.putLong(i << 3, append(kb, vb));
+                garbage += oldSize;
+            }
+            return oldValue;
+        }
+
+        // key does not exist
+        long r = append(kb, vb);
+        int mask = capacity - 1;
+        i = h & mask;
+        long s;
+        while ((s = ref(i)) != EMPTY && s != TOMBSTONE) {
+            i = (i + 1) & mask;
+        }
+        if (s == TOMBSTONE) {
+            tombstones--;
+        }
+        refs.putLong(i << 3, r);
+        hashes.putInt(i << 2, h);
+        size++;
+        if ((size + tombstones) * 4L > capacity * 3L) {
+            resize();
+        }
+        return null;
+    }
+
+    @Override
+    public String search(String key) {
+        checkOpen();
+        int i = searchSlot(key.getBytes(StandardCharsets.UTF_8), hash(key));
+        return (i != -1) ? value(ref(i)) : null;
+    }
+
+    @Override
+    public String remove(String key) {
+        checkOpen();
+        int i = searchSlot(key.getBytes(StandardCharsets.UTF_8), hash(key));
+        if (i == -1) {
+            return null;
+        }
+        long r = ref(i);
+        String oldValue = value(r);
+        garbage += recordSize(r);
+        refs.putLong(i << 3, TOMBSTONE);
+        tombstones++;
+        size--;
+        return oldValue;
+    }
+
+    @Override
+    public int size() {
+        checkOpen();
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes of the arena in use (including garbage).
+     * @return number of bytes used in the arena.
+     */
+    public long arenaBytes() {
+        checkOpen();
+        return used;
+    }
+
+    /**
+     * Frees the off-heap buffers. The dictionary cannot be used afterwards; closing it again has no effect.
+     */
+    @Override
+    public void close() {
+        if (refs == null) {
+            return;
+        }
+        for (ByteBuffer b : chunks) {
+            free(b);
+        }
+        free(refs);
+        free(hashes);
+        chunks = null;
+        current = null;
+        refs = null;
+        hashes = null;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<String, String>> iterator() {
+        checkOpen();
+        return new Iterator<Dictionary.Entry<String, String>>() {
+            private int pos = advance(0);
+
+            private int advance(int i) {
+                while (i < capacity && (ref(i) == EMPTY || ref(i) == TOMBSTONE)) {
+                    i++;
+                }
+                return i;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return pos < capacity;
+            }
+
+            @Override
+            public Dictionary.Entry<String, String> next() {
+                checkOpen();
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long r = ref(pos);
+                pos = advance(pos + 1);
+                return new Dictionary.Entry<>(key(r), value(r));
+            }
+        };
+    }
+}
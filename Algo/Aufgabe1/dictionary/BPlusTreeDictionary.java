@@ -0,0 +1,410 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Implementation of the Dictionary interface as B+ tree.
+ * <p>
+ * Each node stores up to fanOut keys in a sorted array, so a search does
+ * one binary search per level over contiguous keys.
+ * All entries are kept in the leaves, the inner nodes only store separator keys.
+ * The leaves are linked from left to right, the iterator returns the entries in key order.
+ * <p>
+ * Overfull nodes are split, underfull nodes borrow from a sibling or are merged with it.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class BPlusTreeDictionary<K extends Comparable<? super K>, V> implements Dictionary<K, V> {
+
+    private static final int DEF_FAN_OUT = 64;
+    private static final int MIN_FAN_OUT = 4;
+
+    private static abstract class Node<K> {
+        int n = 0;  // Anzahl Schluessel
+        final K[] keys;
+
+        @SuppressWarnings("unchecked")
+        Node(int capacity) {
+            keys = (K[]) new Comparable[capacity];
+        }
+    }
+
+    private static final class Leaf<K, V> extends Node<K> {
+        final V[] values;
+        Leaf<K, V> next = null;
+
+        @SuppressWarnings("unchecked")
+        Leaf(int capacity) {
+            super(capacity);
+            values = (V[]) new Object[capacity];
+        }
+    }
+
+    private static final class Inner<K> extends Node<K> {
+        // children[i] enthaelt die Schluessel k mit keys[i-1] <= k < keys[i]
+        final Node<K>[] children;
+
+        @SuppressWarnings("unchecked")
+        Inner(int capacity) {
+            super(capacity);
+            children = new Node[capacity + 1];
+        }
+    }
+
+    private final int fanOut;
+    private final int minKeys;
+    private Node<K> root;
+    private final Leaf<K, V> first;   // linkes Blatt; bleibt bei Verschmelzungen erhalten
+    private int size = 0;
+
+    // Pfad von der Wurzel zum Blatt der letzten Operation
+    private Inner<K>[] pathNodes;
+    private int[] pathIdx;
+    private int depth;
+
+    public BPlusTreeDictionary() {
+        this(DEF_FAN_OUT);
+    }
+
+    /**
+     * Creates an empty B+ tree.
+     * @param fanOut maximal number of keys per node (at least 4).
+     */
+    @SuppressWarnings("unchecked")
+    public BPlusTreeDictionary(int fanOut) {
+        if (fanOut < MIN_FAN_OUT) {
+            throw new IllegalArgumentException("fanOut must be at least " + MIN_FAN_OUT);
+        }
+        this.fanOut = fanOut;
+        this.minKeys = fanOut / 2;
+        first = new Leaf<>(fanOut + 1);
+        root = first;
+        pathNodes = new Inner[8];
+        pathIdx = new int[8];
+    }
+
+    /**
+     * Returns the first position i with keys[i] >= key.
+     */
+    private static <K extends Comparable<? super K>> int lowerBound(Node<K> p, K key) {
+        int li = 0;
+        int re = p.n;
+        while (li < re) {
+            int m = (li + re) >>> 1;
+            if (p.keys[m].compareTo(key) < 0)
+                li = m + 1;
+            else
+                re = m;
+        }
+        return li;
+    }
+
+    /**
+     * Returns the first position i with keys[i] > key.
+     */
+    private static <K extends Comparable<? super K>> int upperBound(Node<K> p, K key) {
+        int li = 0;
+        int re = p.n;
+        while (li < re) {
+            int m = (li + re) >>> 1;
+            if (p.keys[m].compareTo(key) <= 0)
+                li = m + 1;
+            else
+                re = m;
+        }
+        return li;
+    }
+
+    /**
+     * Descends to the leaf that may contain key and records the path.
+     */
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> findLeaf(K key) {
+        depth = 0;
+        Node<K> p = root;
+        while (p instanceof Inner) {
+            Inner<K> q = (Inner<K>) p;
+            int i = upperBound(q, key);
+            if (depth == pathNodes.length) {
+                pathNodes = Arrays.copyOf(pathNodes, 2 * depth);
+                pathIdx = Arrays.copyOf(pathIdx, 2 * depth);
+            }
+            pathNodes[depth] = q;
+            pathIdx[depth] = i;
+            depth++;
+            p = q.children[i];
+        }
+        return (Leaf<K, V>) p;
+    }
+
+    @Override
+    public V search(K key) {
+        Node<K> p = root;
+        while (p instanceof Inner) {
+            p = ((Inner<K>) p).children[upperBound(p, key)];
+        }
+        @SuppressWarnings("unchecked")
+        Leaf<K, V> leaf = (Leaf<K, V>) p;
+        int i = lowerBound(leaf, key);
+        if (i < leaf.n && leaf.keys[i].compareTo(key) == 0) {
+            return leaf.values[i];
+        }
+        return null;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        Leaf<K, V> leaf = findLeaf(key);
+        int i = lowerBound(leaf, key);
+
+        // key already exists
+        if (i < leaf.n && leaf.keys[i].compareTo(key) == 0) {
+            V oldValue = leaf.values[i];
+            leaf.values[i] = value;
+            return oldValue;
+        }
+
+        // key does not exist
+        System.arraycopy(leaf.keys, i, leaf.keys, i + 1, leaf.n - i);
+        System.arraycopy(leaf.values, i, leaf.values, i + 1, leaf.n - i);
+        leaf.keys[i] = key;
+        leaf.values[i] = value;
+        leaf.n++;
+        size++;
+        if (leaf.n > fanOut) {
+            splitLeaf(leaf);
+        }
+        return null;
+    }
+
+    private void splitLeaf(Leaf<K, V> leaf) {
+        Leaf<K, V> right = new Leaf<>(fanOut + 1);
+        int m = leaf.n / 2;
+        right.n = leaf.n - m;
+        System.arraycopy(leaf.keys, m, right.keys, 0, right.n);
+        System.arraycopy(leaf.values, m, right.values, 0, right.n);
+        Arrays.fill(leaf.keys, m, leaf.n, null);
+        Arrays.fill(leaf.values, m, leaf.n, null);
+        leaf.n = m;
+        right.next = leaf.next;
+        leaf.next = right;
+        insertInParent(leaf, right.keys[0], right);
+    }
+
+    private void splitInner(Inner<K> p) {
+        Inner<K> right = new Inner<>(fanOut + 1);
+        int m = p.n / 2;
+        K separator = p.keys[m];
+        right.n = p.n - m - 1;
+        System.arraycopy(p.keys, m + 1, right.keys, 0, right.n);
+        System.arraycopy(p.children, m + 1, right.children, 0, right.n + 1);
+        Arrays.fill(p.keys, m, p.n, null);
+        Arrays.fill(p.children, m + 1, p.n + 1, null);
+        p.n = m;
+        insertInParent(p, separator, right);
+    }
+
+    /**
+     * Inserts separator and the new right sibling of left into the parent of left.
+     * The parent is taken from the recorded path.
+     */
+    private void insertInParent(Node<K> left, K separator, Node<K> right) {
+        if (depth == 0) {
+            Inner<K> newRoot = new Inner<>(fanOut + 1);
+            newRoot.n = 1;
+            newRoot.keys[0] = separator;
+            newRoot.children[0] = left;
+            newRoot.children[1] = right;
+            root = newRoot;
+            return;
+        }
+        depth--;
+        Inner<K> p = pathNodes[depth];
+        int i = pathIdx[depth];
+        System.arraycopy(p.keys, i, p.keys, i + 1, p.n - i);
+        System.arraycopy(p.children, i + 1, p.children, i + 2, p.n - i);
+        p.keys[i] = separator;
+        p.children[i + 1] = right;
+        p.n++;
+        if (p.n > fanOut) {
+            splitInner(p);
+        }
+    }
+
+    @Override
+    public V remove(K key) {
+        Leaf<K, V> leaf = findLeaf(key);
+        int i = lowerBound(leaf, key);
+        if (i == leaf.n || leaf.keys[i].compareTo(key) != 0) {
+            return null;
+        }
+        V oldValue = leaf.values[i];
+        System.arraycopy(leaf.keys, i + 1, leaf.keys, i, leaf.n - i - 1);
+        System.arraycopy(leaf.values, i + 1, leaf.values, i, leaf.n - i - 1);
+        leaf.n--;
+        leaf.keys[leaf.n] = null;
+        leaf.values[leaf.n] = null;
+        size--;
+
+        // Unterlauf nach oben abarbeiten
+        Node<K> p = leaf;
+        while (depth > 0 && p.n < minKeys) {
+            depth--;
+            Inner<K> parent = pathNodes[depth];
+            rebalance(parent, pathIdx[depth]);
+            p = parent;
+        }
+        if (root instanceof Inner && root.n == 0) {
+            root = ((Inner<K>) root).children[0];
+        }
+        return oldValue;
+    }
+
+    /**
+     * Fixes the underfull child c of parent by borrowing from or merging with a sibling.
+     */
+    @SuppressWarnings("unchecked")
+    private void rebalance(Inner<K> parent, int c) {
+        Node<K> child = parent.children[c];
+        if (c > 0 && parent.children[c - 1].n > minKeys) {
+            Node<K> left = parent.children[c - 1];
+            if (child instanceof Leaf) {
+                Leaf<K, V> l = (Leaf<K, V>) left;
+                Leaf<K, V> q = (Leaf<K, V>) child;
+                System.arraycopy(q.keys, 0, q.keys, 1, q.n);
+                System.arraycopy(q.values, 0, q.values, 1, q.n);
+                q.keys[0] = l.keys[l.n - 1];
+                q.values[0] = l.values[l.n - 1];
+                l.keys[l.n - 1] = null;
+                l.values[l.n - 1] = null;
+                parent.keys[c - 1] = q.keys[0];
+            } else {
+                Inner<K> l = (Inner<K>) left;
+                Inner<K> q = (Inner<K>) child;
+                System.arraycopy(q.keys, 0, q.keys, 1, q.n);
+                System.arraycopy(q.children, 0, q.children, 1, q.n + 1);
+                q.keys[0] = parent.keys[c - 1];
+                q.children[0] = l.children[l.n];
+                parent.keys[c - 1] = l.keys[l.n - 1];
+                l.keys[l.n - 1] = null;
+                l.children[l.n] = null;
+            }
+            left.n--;
+            child.n++;
+        } else if (c < parent.n && parent.children[c + 1].n > minKeys) {
+            Node<K> right = parent.children[c + 1];
+            if (child instanceof Leaf) {
+                Leaf<K, V> r = (Leaf<K, V>) right;
+                Leaf<K, V> q = (Leaf<K, V>) child;
+                q.keys[q.n] = r.keys[0];
+                q.values[q.n] = r.values[0];
+                System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+                System.arraycopy(r.values, 1, r.values, 0, r.n - 1);
+                r.keys[r.n - 1] = null;
+                r.values[r.n - 1] = null;
+                parent.keys[c] = r.keys[0];
+            } else {
+                Inner<K> r = (Inner<K>) right;
+                Inner<K> q = (Inner<K>) child;
+                q.keys[q.n] = parent.keys[c];
+                q.children[q.n + 1] = r.children[0];
+                parent.keys[c] = r.keys[0];
+                System.arraycopy(r.keys, 1, r.keys, 0, r.n - 1);
+                System.arraycopy(r.children, 1, r.children, 0, r.n);
+                r.keys[r.n - 1] = null;
+                r.children[r.n] = null;
+            }
+            right.n--;
+            child.n++;
+        } else if (c > 0) {
+            merge(parent, c - 1);
+        } else {
+            merge(parent, c);
+        }
+    }
+
+    /**
+     * Merges children[s + 1] of parent into children[s] and removes separator keys[s].
+     */
+    @SuppressWarnings("unchecked")
+    private void merge(Inner<K> parent, int s) {
+        Node<K> left = parent.children[s];
+        Node<K> right = parent.children[s + 1];
+        if (left instanceof Leaf) {
+            Leaf<K, V> l = (Leaf<K, V>) left;
+            Leaf<K, V> r = (Leaf<K, V>) right;
+            System.arraycopy(r.keys, 0, l.keys, l.n, r.n);
+            System.arraycopy(r.values, 0, l.values, l.n, r.n);
+            l.n += r.n;
+            l.next = r.next;
+        } else {
+            Inner<K> l = (Inner<K>) left;
+            Inner<K> r = (Inner<K>) right;
+            l.keys[l.n] = parent.keys[s];
+            System.arraycopy(r.keys, 0, l.keys, l.n + 1, r.n);
+            System.arraycopy(r.children, 0, l.children, l.n + 1, r.n + 1);
+            l.n += r.n + 1;
+        }
+        System.arraycopy(parent.keys, s + 1, parent.keys, s, parent.n - s - 1);
+        System.arraycopy(parent.children, s + 2, parent.children, s + 1, parent.n - s - 1);
+        parent.n--;
+        parent.keys[parent.n] = null;
+        parent.children[parent.n + 1] = null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new LeafIterator(null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new LeafIterator(new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Leaf<K, V> leaf = first; leaf != null; leaf = leaf.next) {
+            for (int i = 0; i < leaf.n; i++) {
+                action.accept(leaf.keys[i], leaf.values[i]);
+            }
+        }
+    }
+
+    private class LeafIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private Leaf<K, V> leaf = first;
+        private int pos = 0;
+        private final Dictionary.Entry<K, V> cursor;  // null: neuer Entry pro next()
+
+        LeafIterator(Dictionary.Entry<K, V> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (leaf != null && pos == leaf.n) {
+                leaf = leaf.next;
+                pos = 0;
+            }
+            return leaf != null;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K k = leaf.keys[pos];
+            V v = leaf.values[pos];
+            pos++;
+            return (cursor == null) ? new Dictionary.Entry<>(k, v) : cursor.reset(k, v);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 // O. Bittel
 // 22.09.2022
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 import org.w3c.dom.Node;
 
@@ -17,12 +24,13 @@ import org.w3c.dom.Node;
  * @param <K> Key.
  * @param <V> Value.
  */
-public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Dictionary<K, V> {
+public class BinaryTreeDictionary<K extends Comparable<K>, V> implements OrderedDictionary<K, V> {
     
     static private class Node<K, V> {
         K key;
         V value;
         int height;
+        int size;       // Anzahl Knoten im Teilbaum
         Node<K, V> left;
         Node<K, V> right;
         Node<K, V> parent;
@@ -31,6 +39,7 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
             key = k;
             value = v;
             height = 0;
+            size = 1;
             left = null;
             right = null;
             parent = null;
@@ -40,6 +49,9 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
     private Node<K, V> root = null;
     private int size = 0;
     private V oldValue;
+    private static final int MIN_RUN_LENGTH = 8;   // searchAll: mittlere Laenge sortierter Laeufe
+    private static final int REBUILD_RATIO = 4;    // putAll, removeAll: ab n/4 Eintraegen neu aufbauen statt join
+    private final DictionaryStats stats = DictionaryStats.ENABLED ? new DictionaryStats(this) : null;
     
     // ...
 
@@ -76,9 +88,15 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
     @Override
     public V insert(K key, V value) {
         root = insertR(key, value, root);
-        size++;
+        if (oldValue == null)
+            size++;
         if (root != null)
             root.parent = null;
+        if (DictionaryStats.ENABLED) {
+            if (oldValue == null)
+                stats.recordInsert();
+            stats.setHeight(getHigh(root));
+        }
         return oldValue;
     }
 
@@ -102,6 +120,61 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
         return p;
     }
 
+    /**
+     * Builds a perfectly balanced AVL tree in O(n log n) if this dictionary is empty:
+     * the entries are sorted once, duplicate keys are removed (last entry wins)
+     * and the tree is built from the sorted entries in linear time.
+     */
+    @Override
+    public void insertAll(Iterable<? extends Dictionary.Entry<K, V>> entries) {
+        if (size > 0) {
+            OrderedDictionary.super.insertAll(entries);
+            return;
+        }
+        List<Dictionary.Entry<K, V>> list = new ArrayList<>();
+        for (Dictionary.Entry<K, V> e : entries) {
+            list.add(e);
+        }
+        List<Dictionary.Entry<K, V>> sorted = sortedUnique(list);
+        root = buildR(sorted, 0, sorted.size() - 1, null);
+        size = sorted.size();
+        if (DictionaryStats.ENABLED) {
+            stats.setHeight(getHigh(root));
+        }
+    }
+
+    /**
+     * Sorts the entries by key and removes duplicate keys (last entry wins).
+     */
+    private List<Dictionary.Entry<K, V>> sortedUnique(List<Dictionary.Entry<K, V>> list) {
+        // stabile Sortierung, damit bei gleichen Schluesseln der letzte Eintrag hinten liegt
+        list.sort(Comparator.comparing((Dictionary.Entry<K, V> e) -> e.getKey()));
+
+        List<Dictionary.Entry<K, V>> sorted = new ArrayList<>(list.size());
+        for (Dictionary.Entry<K, V> e : list) {
+            int n = sorted.size();
+            if (n > 0 && e.getKey().compareTo(sorted.get(n - 1).getKey()) == 0) {
+                sorted.set(n - 1, e);
+            } else {
+                sorted.add(e);
+            }
+        }
+        return sorted;
+    }
+
+    private Node<K,V> buildR(List<Dictionary.Entry<K, V>> sorted, int li, int re, Node<K,V> parent) {
+        if (li > re)
+            return null;
+        int m = (li + re) / 2;
+        Node<K,V> p = new Node<>(sorted.get(m).getKey(), sorted.get(m).getValue());
+        p.parent = parent;
+        p.left = buildR(sorted, li, m - 1, p);
+        p.right = buildR(sorted, m + 1, re, p);
+        p.height = Math.max(getHigh(p.left), getHigh(p.right)) + 1;
+        p.size = getSize(p.left) + getSize(p.right) + 1;
+        return p;
+    }
+
     private Node<K,V> balance(Node<K,V> p) {
         if (p == null)
             return null;
@@ -115,11 +188,14 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
             p = rotateRight(p);
         }
         p.height = Math.max(getHigh(p.left), getHigh(p.right)) + 1;
+        p.size = getSize(p.left) + getSize(p.right) + 1;
         return p;
     }
 
     private Node<K,V> rotateRight(Node<K,V> p) {
         assert p != null && p.left != null;
+        if (DictionaryStats.ENABLED)
+            stats.recordRotation();
         Node<K,V> q = p.left;
         p.left = q.right;
         if (p.left != null)
@@ -128,12 +204,16 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
         q.parent = p.parent;
         p.parent = q;
         p.height = Math.max(getHigh(p.left), getHigh(p.right)) + 1;
+        p.size = getSize(p.left) + getSize(p.right) + 1;
         q.height = Math.max(getHigh(q.left), getHigh(q.right)) + 1;
+        q.size = getSize(q.left) + getSize(q.right) + 1;
         return q;
     }
 
     private Node<K,V> rotateLeft(Node<K,V> p) {
         assert p != null && p.right != null;
+        if (DictionaryStats.ENABLED)
+            stats.recordRotation();
         Node<K,V> q = p.right;
         p.right = q.left;
         if (p.right != null)
@@ -142,7 +222,9 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
         q.parent = p.parent;
         p.parent = q;
         p.height = Math.max(getHigh(p.left), getHigh(p.right)) + 1;
+        p.size = getSize(p.left) + getSize(p.right) + 1;
         q.height = Math.max(getHigh(q.left), getHigh(q.right)) + 1;
+        q.size = getSize(q.left) + getSize(q.right) + 1;
         return q;
     }
 
@@ -174,10 +256,71 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
             return p.value;
         }
 
+    /**
+     * Looks up the keys in ascending order using finger search:
+     * the search for a key starts at the node reached by the previous key,
+     * ascends only as far as necessary and then descends as usual.
+     * For close keys this visits O(log d) nodes for a distance d instead of a full root-to-leaf path.
+     * Keys in random order are searched one after the other,
+     * since sorting them would cost as many compares as the searches from the root.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> searchAll(List<? extends K> keys) {
+        K[] probes = (K[]) keys.toArray(new Comparable[0]);
+        Integer[] order = probeOrder(probes);
+        if (order == null)
+            return OrderedDictionary.super.searchAll(keys);
+
+        List<V> values = new ArrayList<>(Collections.nCopies(probes.length, null));
+        Node<K,V> finger = root;
+        for (int i : order) {
+            K key = probes[i];
+            Node<K,V> p = finger;
+            // aufsteigen, bis key im Teilbaum von p liegt (key ist >= dem vorherigen Schluessel)
+            while (p != null && p.parent != null && !(p.parent.left == p && key.compareTo(p.parent.key) < 0))
+                p = p.parent;
+            while (p != null) {
+                finger = p;
+                int c = key.compareTo(p.key);
+                if (c == 0) {
+                    values.set(i, p.value);
+                    break;
+                }
+                p = (c < 0) ? p.left : p.right;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the positions of the probes in ascending order of their keys,
+     * or null if the probes consist of so many ascending runs that sorting does not pay.
+     */
+    private static <K extends Comparable<K>> Integer[] probeOrder(K[] probes) {
+        int runs = 1;
+        for (int i = 1; i < probes.length; i++)
+            if (probes[i - 1].compareTo(probes[i]) > 0)
+                runs++;
+        if (runs > 1 && runs * MIN_RUN_LENGTH > probes.length)
+            return null;
+        Integer[] order = new Integer[probes.length];
+        for (int i = 0; i < probes.length; i++)
+            order[i] = i;
+        if (runs > 1)
+            Arrays.sort(order, (a, b) -> probes[a].compareTo(probes[b]));
+        return order;
+    }
+
     @Override
     public V remove(K key) {
         root = removeR(key, root);
-        size--;
+        if (root != null)
+            root.parent = null;
+        if (oldValue != null)
+            size--;
+        if (DictionaryStats.ENABLED)
+            stats.setHeight(getHigh(root));
         return oldValue;
     }
 
@@ -185,10 +328,16 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
         if (p == null) { 
             oldValue = null; 
         }
-        else if(key.compareTo(p.key) < 0)
+        else if(key.compareTo(p.key) < 0) {
             p.left = removeR(key, p.left);
-        else if (key.compareTo(p.key) > 0)
+            if (p.left != null)
+                p.left.parent = p;
+        }
+        else if (key.compareTo(p.key) > 0) {
             p.right = removeR(key, p.right);
+            if (p.right != null)
+                p.right.parent = p;
+        }
         else if (p.left == null || p.right == null) {
         // p muss gelöscht werden
         // und hat ein oder kein Kind:
@@ -198,10 +347,13 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
         // p muss gelöscht werden und hat zwei Kinder:
             MinEntry<K,V> min = new MinEntry<K,V>();
             p.right = getRemMinR(p.right, min);
+            if (p.right != null)
+                p.right.parent = p;
             oldValue = p.value;
             p.key = min.key;
             p.value = min.value;
         }
+        p = balance(p);
         return p;
     }
 
@@ -212,8 +364,12 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
             min.value = p.value;
             p = p.right;
         }
-        else
+        else {
             p.left = getRemMinR(p.left, min);
+            if (p.left != null)
+                p.left.parent = p;
+        }
+        p = balance(p);
         return p;
     }
 
@@ -222,6 +378,215 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
         private V value;
     }
 
+    /**
+     * Inserts the entries of other; the sorted entries of other (m) are
+     * merged with the tree (n) by a join-based union in O(m log(n/m + 1)).
+     * If m is at least n/REBUILD_RATIO, both are merged in one pass and the tree is rebuilt in O(n + m).
+     */
+    @Override
+    public void putAll(Dictionary<K, V> other) {
+        List<Dictionary.Entry<K, V>> list = new ArrayList<>(other.size());
+        other.forEach((k, v) -> list.add(new Dictionary.Entry<>(k, v)));
+        List<Dictionary.Entry<K, V>> sorted = sortedUnique(list);
+        if (sorted.size() * REBUILD_RATIO >= size)
+            rebuild(sorted, false);
+        else
+            root = unionR(root, buildR(sorted, 0, sorted.size() - 1, null));
+        bulkFinished();
+    }
+
+    /**
+     * Removes the keys by a join-based difference in O(m log(n/m + 1)) after sorting the keys;
+     * like putAll, the tree is rebuilt in O(n + m) if m is at least n/REBUILD_RATIO.
+     */
+    @Override
+    public int removeAll(Collection<? extends K> keys) {
+        List<Dictionary.Entry<K, V>> list = new ArrayList<>(keys.size());
+        for (K key : keys)
+            list.add(new Dictionary.Entry<>(key, null));
+        List<Dictionary.Entry<K, V>> sorted = sortedUnique(list);
+        int oldSize = size;
+        if (sorted.size() * REBUILD_RATIO >= size)
+            rebuild(sorted, true);
+        else
+            root = differenceR(root, buildR(sorted, 0, sorted.size() - 1, null));
+        bulkFinished();
+        return oldSize - size;
+    }
+
+    /**
+     * Merges the nodes of the tree with sorted in one pass and links them to a balanced tree;
+     * the nodes of the tree are reused.
+     * @param remove true: drop the keys of sorted; false: insert the entries of sorted.
+     */
+    private void rebuild(List<Dictionary.Entry<K, V>> sorted, boolean remove) {
+        List<Node<K,V>> merged = new ArrayList<>(remove ? size : size + sorted.size());
+        int j = 0;
+        Node<K,V> p = (root != null) ? leftMostDescendant(root) : null;
+        while (p != null) {
+            while (j < sorted.size() && sorted.get(j).getKey().compareTo(p.key) < 0) {
+                if (!remove)
+                    merged.add(new Node<>(sorted.get(j).getKey(), sorted.get(j).getValue()));
+                j++;
+            }
+            if (j < sorted.size() && sorted.get(j).getKey().compareTo(p.key) == 0) {
+                if (!remove) {
+                    p.value = sorted.get(j).getValue();
+                    merged.add(p);
+                }
+                j++;
+            } else {
+                merged.add(p);
+            }
+            if (p.right != null)
+                p = leftMostDescendant(p.right);
+            else
+                p = parentOfLeftMostAncestor(p);
+        }
+        for (; !remove && j < sorted.size(); j++)
+            merged.add(new Node<>(sorted.get(j).getKey(), sorted.get(j).getValue()));
+        root = linkR(merged, 0, merged.size() - 1);
+    }
+
+    private Node<K,V> linkR(List<Node<K,V>> nodes, int li, int re) {
+        if (li > re)
+            return null;
+        int m = (li + re) / 2;
+        return link(linkR(nodes, li, m - 1), nodes.get(m), linkR(nodes, m + 1, re));
+    }
+
+    /**
+     * Removes the entries in one in-order pass in O(n); the remaining subtrees are joined.
+     */
+    @Override
+    public int removeIf(BiPredicate<? super K, ? super V> filter) {
+        int oldSize = size;
+        root = filterR(root, filter);
+        bulkFinished();
+        return oldSize - size;
+    }
+
+    private void bulkFinished() {
+        if (root != null)
+            root.parent = null;
+        size = getSize(root);
+        if (DictionaryStats.ENABLED)
+            stats.setHeight(getHigh(root));
+    }
+
+    // Join-basierte Mengenoperationen (Blelloch, Ferizovic, Sun: Just Join for Parallel Ordered Sets).
+    // Die Teilbaeume werden dabei zerlegt und wiederverwendet; parent wird beim Einhaengen gesetzt.
+
+    private Node<K,V> link(Node<K,V> l, Node<K,V> m, Node<K,V> r) {
+        m.left = l;
+        m.right = r;
+        if (l != null)
+            l.parent = m;
+        if (r != null)
+            r.parent = m;
+        m.height = Math.max(getHigh(l), getHigh(r)) + 1;
+        m.size = getSize(l) + getSize(r) + 1;
+        return m;
+    }
+
+    /**
+     * Joins l, m and r (all keys of l < m.key < all keys of r) to an AVL tree
+     * in O(|h(l) - h(r)| + 1).
+     */
+    private Node<K,V> join(Node<K,V> l, Node<K,V> m, Node<K,V> r) {
+        if (getHigh(l) > getHigh(r) + 1) {
+            l.right = join(l.right, m, r);
+            l.right.parent = l;
+            return balance(l);
+        } else if (getHigh(r) > getHigh(l) + 1) {
+            r.left = join(l, m, r.left);
+            r.left.parent = r;
+            return balance(r);
+        } else {
+            return link(l, m, r);
+        }
+    }
+
+    /**
+     * Joins l and r (all keys of l < all keys of r).
+     */
+    private Node<K,V> join2(Node<K,V> l, Node<K,V> r) {
+        if (r == null)
+            return l;
+        MinEntry<K,V> min = new MinEntry<K,V>();
+        r = getRemMinR(r, min);
+        return join(l, new Node<>(min.key, min.value), r);
+    }
+
+    private Node<K,V> splitLeft;
+    private Node<K,V> splitRight;
+
+    /**
+     * Splits p into the keys less than key (splitLeft) and greater than key (splitRight).
+     * @return the node with key, or null.
+     */
+    private Node<K,V> split(Node<K,V> p, K key) {
+        if (p == null) {
+            splitLeft = null;
+            splitRight = null;
+            return null;
+        }
+        int c = key.compareTo(p.key);
+        if (c == 0) {
+            splitLeft = p.left;
+            splitRight = p.right;
+            return p;
+        } else if (c < 0) {
+            Node<K,V> m = split(p.left, key);
+            splitRight = join(splitRight, p, p.right);
+            return m;
+        } else {
+            Node<K,V> m = split(p.right, key);
+            splitLeft = join(p.left, p, splitLeft);
+            return m;
+        }
+    }
+
+    // Vereinigung; bei gleichen Schluesseln gewinnt der Eintrag aus t2.
+    private Node<K,V> unionR(Node<K,V> t1, Node<K,V> t2) {
+        if (t1 == null)
+            return t2;
+        if (t2 == null)
+            return t1;
+        split(t1, t2.key);
+        Node<K,V> l1 = splitLeft;
+        Node<K,V> r1 = splitRight;
+        Node<K,V> l2 = t2.left;
+        Node<K,V> r2 = t2.right;
+        Node<K,V> l = unionR(l1, l2);
+        Node<K,V> r = unionR(r1, r2);
+        return join(l, t2, r);
+    }
+
+    // Differenz: Eintraege aus t1, deren Schluessel nicht in t2 vorkommen.
+    private Node<K,V> differenceR(Node<K,V> t1, Node<K,V> t2) {
+        if (t1 == null || t2 == null)
+            return t1;
+        split(t1, t2.key);
+        Node<K,V> l1 = splitLeft;
+        Node<K,V> r1 = splitRight;
+        Node<K,V> l2 = t2.left;
+        Node<K,V> r2 = t2.right;
+        Node<K,V> l = differenceR(l1, l2);
+        Node<K,V> r = differenceR(r1, r2);
+        return join2(l, r);
+    }
+
+    private Node<K,V> filterR(Node<K,V> p, BiPredicate<? super K, ? super V> filter) {
+        if (p == null)
+            return null;
+        Node<K,V> r0 = p.right;
+        Node<K,V> l = filterR(p.left, filter);
+        boolean removed = filter.test(p.key, p.value);
+        Node<K,V> r = filterR(r0, filter);
+        return removed ? join2(l, r) : join(l, p, r);
+    }
+
     private int getHigh(Node<K,V> p) {
         if (p == null)
             return -1;
@@ -229,6 +594,10 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
             return p.height;
     }
 
+    private int getSize(Node<K,V> p) {
+        return (p == null) ? 0 : p.size;
+    }
+
     private int getBalance(Node<K,V> p) {
         if (p == null)
             return 0;
@@ -264,30 +633,157 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
     }
 
 
+    private K keyOf(Node<K,V> p) {
+        return (p == null) ? null : p.key;
+    }
+
     @Override
-    public int size() {
-        return size;
+    public K firstKey() {
+        return (root == null) ? null : leftMostDescendant(root).key;
     }
 
     @Override
-    public Iterator<Dictionary.Entry<K, V>> iterator() {
+    public K lastKey() {
+        Node<K,V> p = root;
+        if (p != null)
+            while (p.right != null)
+                p = p.right;
+        return keyOf(p);
+    }
+
+    @Override
+    public K floor(K key) {
+        return keyOf(floorNode(key, true));
+    }
+
+    @Override
+    public K ceiling(K key) {
+        return keyOf(ceilingNode(key, true));
+    }
+
+    @Override
+    public K higher(K key) {
+        return keyOf(ceilingNode(key, false));
+    }
+
+    @Override
+    public K lower(K key) {
+        return keyOf(floorNode(key, false));
+    }
+
+    /**
+     * Returns the key with rank k, i.e. the k-th smallest key (counting from 0), in O(log n).
+     * @param k rank.
+     * @return the key with rank k, or null if k is not in [0, size()).
+     */
+    public K select(int k) {
+        return keyOf(selectNode(k));
+    }
+
+    private Node<K,V> selectNode(int k) {
+        if (k < 0 || k >= size)
+            return null;
+        Node<K,V> p = root;
+        while (true) {
+            int l = getSize(p.left);
+            if (k < l)
+                p = p.left;
+            else if (k > l) {
+                k -= l + 1;
+                p = p.right;
+            } else
+                return p;
+        }
+    }
+
+    /**
+     * Returns the number of keys less than key in O(log n).
+     * If key is contained, this is its rank (select(rank(key)) == key).
+     * @param key the key to be compared.
+     * @return the number of keys less than key.
+     */
+    public int rank(K key) {
+        int r = 0;
+        Node<K,V> p = root;
+        while (p != null) {
+            int c = key.compareTo(p.key);
+            if (c < 0)
+                p = p.left;
+            else if (c > 0) {
+                r += getSize(p.left) + 1;
+                p = p.right;
+            } else
+                return r + getSize(p.left);
+        }
+        return r;
+    }
+
+    /**
+     * Returns an iterator over the entries in ascending key order, beginning with the entry of rank k.
+     * Positioning costs O(log n), so a page of entries can be read without walking the preceding ones.
+     * @param k rank of the first entry.
+     * @return an iterator beginning with the k-th smallest key; empty if k >= size().
+     */
+    public Iterator<Dictionary.Entry<K, V>> iterator(int k) {
+        if (k < 0)
+            throw new IndexOutOfBoundsException(k);
+        return new TreeIterator(selectNode(k), null);
+    }
+
+    /**
+     * Returns the node with the least key >= key (inclusive) or > key (not inclusive).
+     */
+    private Node<K,V> ceilingNode(K key, boolean inclusive) {
+        Node<K,V> p = root;
+        Node<K,V> candidate = null;
+        while (p != null) {
+            int c = key.compareTo(p.key);
+            if (c < 0 || (c == 0 && inclusive)) {
+                candidate = p;
+                if (c == 0)
+                    break;
+                p = p.left;
+            } else
+                p = p.right;
+        }
+        return candidate;
+    }
+
+    /**
+     * Returns the node with the greatest key <= key (inclusive) or < key (not inclusive).
+     */
+    private Node<K,V> floorNode(K key, boolean inclusive) {
+        Node<K,V> p = root;
+        Node<K,V> candidate = null;
+        while (p != null) {
+            int c = key.compareTo(p.key);
+            if (c > 0 || (c == 0 && inclusive)) {
+                candidate = p;
+                if (c == 0)
+                    break;
+                p = p.right;
+            } else
+                p = p.left;
+        }
+        return candidate;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> range(K fromKey, K toKey) {
         return new Iterator<Dictionary.Entry<K,V>>() {
-            Node<K,V> p = null;
-            Node<K,V> q = null;
-            {
-                if (root != null)
-                    p = leftMostDescendant(root);
-            }
+            Node<K,V> p = (fromKey != null) ? ceilingNode(fromKey, true)
+                    : (root != null) ? leftMostDescendant(root) : null;
+
             @Override
             public boolean hasNext() {
-                return p != null;
+                return p != null && (toKey == null || p.key.compareTo(toKey) < 0);
             }
 
             @Override
             public Dictionary.Entry<K, V> next() {
                 if (!hasNext())
                     throw new NoSuchElementException();
-                q = p;
+                Node<K,V> q = p;
                 if (p.right != null)
                     p = leftMostDescendant(p.right);
                 else
@@ -297,4 +793,72 @@ public class BinaryTreeDictionary<K extends Comparable<K>, V> implements Diction
         };
     }
 
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public DictionaryStats stats() {
+        return stats;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new TreeIterator(null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new TreeIterator(new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        Node<K,V> p = null;
+        if (root != null)
+            p = leftMostDescendant(root);
+        while (p != null) {
+            action.accept(p.key, p.value);
+            if (p.right != null)
+                p = leftMostDescendant(p.right);
+            else
+                p = parentOfLeftMostAncestor(p);
+        }
+    }
+
+    private class TreeIterator implements Iterator<Dictionary.Entry<K,V>> {
+        Node<K,V> p = null;
+        Node<K,V> q = null;
+        final Dictionary.Entry<K,V> cursor;  // null: neuer Entry pro next()
+
+        TreeIterator(Dictionary.Entry<K,V> cursor) {
+            this.cursor = cursor;
+            if (root != null)
+                p = leftMostDescendant(root);
+        }
+
+        TreeIterator(Node<K,V> first, Dictionary.Entry<K,V> cursor) {
+            this.cursor = cursor;
+            p = first;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return p != null;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            q = p;
+            if (p.right != null)
+                p = leftMostDescendant(p.right);
+            else
+                p = parentOfLeftMostAncestor(p);
+            return (cursor == null) ? new Dictionary.Entry<>(q.key, q.value) : cursor.reset(q.key, q.value);
+        }
+    }
+
 }
@@ -0,0 +1,303 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * Bounded cache in front of another dictionary.
+ * <p>
+ * search first looks into the cache; on a miss the value is taken from the backing dictionary
+ * or, if it is not contained there and a loader is given, from the loader, and then cached.
+ * insert and remove write through to the backing dictionary and keep the cache consistent.
+ * size and iterator refer to the backing dictionary; values obtained from the loader are only cached.
+ * <p>
+ * The cache holds at most capacity entries. The cached entries are kept in intrusive
+ * doubly linked lists, so every access and every eviction costs O(1). Eviction policies:
+ * <ul>
+ * <li>LRU: the least recently used entry is evicted.</li>
+ * <li>TINY_LFU: new entries go to a small LRU window (1% of the capacity).
+ * An entry leaving the window is only admitted to the main LRU area if it was requested more often
+ * than the entry it would replace; the access frequencies are estimated by a count-min sketch
+ * with 4-bit counters that are halved periodically (W-TinyLFU).</li>
+ * </ul>
+ * Hits, misses and evictions are counted.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class CachingDictionary<K, V> implements Dictionary<K, V> {
+
+    /**
+     * Eviction policy of a CachingDictionary.
+     */
+    public enum Policy {LRU, TINY_LFU}
+
+    private static class Node<K, V> {
+        K key;
+        V value;
+        Node<K, V> prev;
+        Node<K, V> next;
+        boolean inWindow;
+
+        Node(K k, V v) {
+            key = k;
+            value = v;
+        }
+    }
+
+    // Zirkulaere Liste mit Wachterknoten; head.next ist der zuletzt benutzte Eintrag.
+    private static class LruList<K, V> {
+        final Node<K, V> head = new Node<>(null, null);
+        int size = 0;
+
+        LruList() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void addFirst(Node<K, V> p) {
+            p.prev = head;
+            p.next = head.next;
+            head.next.prev = p;
+            head.next = p;
+            size++;
+        }
+
+        void unlink(Node<K, V> p) {
+            p.prev.next = p.next;
+            p.next.prev = p.prev;
+            p.prev = null;
+            p.next = null;
+            size--;
+        }
+
+        void moveToFront(Node<K, V> p) {
+            unlink(p);
+            addFirst(p);
+        }
+
+        Node<K, V> last() {
+            return head.prev == head ? null : head.prev;
+        }
+    }
+
+    /**
+     * Count-min sketch with four 4-bit counters per key, packed 16 to a long.
+     */
+    private static class FrequencySketch {
+        private final long[] table;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(int capacity) {
+            int n = Integer.highestOneBit(Math.max(4, capacity - 1)) << 1;
+            table = new long[n];
+            sampleSize = 10 * Math.max(1, capacity);
+        }
+
+        private int index(int h, int i) {
+            h = (h + i) * 0x9e3779b9;
+            h ^= h >>> 16;
+            return h & (table.length - 1);
+        }
+
+        private static int shift(int h, int i) {
+            return (((h >>> (8 * i)) & 0xf) << 2);
+        }
+
+        int frequency(Object key) {
+            int h = key.hashCode();
+            int min = 15;
+            for (int i = 0; i < 4; i++) {
+                min = Math.min(min, (int) ((table[index(h, i)] >>> shift(h, i)) & 0xf));
+            }
+            return min;
+        }
+
+        void increment(Object key) {
+            int h = key.hashCode();
+            boolean added = false;
+            for (int i = 0; i < 4; i++) {
+                int j = index(h, i);
+                int s = shift(h, i);
+                if (((table[j] >>> s) & 0xf) < 15) {
+                    table[j] += 1L << s;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                // Alterung: alle Zaehler halbieren
+                for (int j = 0; j < table.length; j++) {
+                    table[j] = (table[j] >>> 1) & 0x7777777777777777L;
+                }
+                additions /= 2;
+            }
+        }
+    }
+
+    private final Dictionary<K, V> backing;
+    private final Function<? super K, ? extends V> loader;
+    private final Policy policy;
+    private final int capacity;
+    private final HashMap<K, Node<K, V>> index = new HashMap<>();
+    private final LruList<K, V> main = new LruList<>();
+    private final LruList<K, V> window = new LruList<>();
+    private final int windowCapacity;
+    private final FrequencySketch sketch;
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * Creates an LRU cache without loader.
+     * @param backing backing dictionary.
+     * @param capacity maximal number of cached entries.
+     */
+    public CachingDictionary(Dictionary<K, V> backing, int capacity) {
+        this(backing, capacity, Policy.LRU, null);
+    }
+
+    /**
+     * Creates a cache.
+     * @param backing backing dictionary.
+     * @param capacity maximal number of cached entries.
+     * @param policy eviction policy.
+     * @param loader function computing the value of a key that is not contained in backing; may be null.
+     */
+    public CachingDictionary(Dictionary<K, V> backing, int capacity, Policy policy,
+                             Function<? super K, ? extends V> loader) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.backing = backing;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.loader = loader;
+        if (policy == Policy.TINY_LFU) {
+            windowCapacity = Math.max(1, capacity / 100);
+            sketch = new FrequencySketch(capacity);
+        } else {
+            windowCapacity = 0;
+            sketch = null;
+        }
+    }
+
+    @Override
+    public V search(K key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Node<K, V> p = index.get(key);
+        if (p != null) {
+            hits++;
+            (p.inWindow ? window : main).moveToFront(p);
+            return p.value;
+        }
+        misses++;
+        V value = backing.search(key);
+        if (value == null && loader != null) {
+            value = loader.apply(key);
+        }
+        if (value != null) {
+            admit(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        V oldValue = backing.insert(key, value);
+        Node<K, V> p = index.get(key);
+        if (p != null) {
+            p.value = value;
+            (p.inWindow ? window : main).moveToFront(p);
+        } else {
+            admit(key, value);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V remove(K key) {
+        Node<K, V> p = index.remove(key);
+        if (p != null) {
+            (p.inWindow ? window : main).unlink(p);
+        }
+        return backing.remove(key);
+    }
+
+    /**
+     * Adds a new entry to the cache and evicts entries if the capacity is exceeded.
+     */
+    private void admit(K key, V value) {
+        Node<K, V> p = new Node<>(key, value);
+        index.put(key, p);
+        if (policy == Policy.LRU) {
+            main.addFirst(p);
+            if (main.size > capacity) {
+                evict(main, main.last());
+            }
+            return;
+        }
+
+        p.inWindow = true;
+        window.addFirst(p);
+        if (window.size <= windowCapacity) {
+            return;
+        }
+        // Kandidat verlaesst das Fenster
+        Node<K, V> candidate = window.last();
+        window.unlink(candidate);
+        candidate.inWindow = false;
+        main.addFirst(candidate);
+        if (main.size + window.size > capacity) {
+            Node<K, V> victim = main.last();
+            if (victim != candidate && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+            evict(main, victim);
+        }
+    }
+
+    private void evict(LruList<K, V> list, Node<K, V> p) {
+        list.unlink(p);
+        index.remove(p.key);
+        evictions++;
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return backing.iterator();
+    }
+
+    /**
+     * Returns the number of cached entries.
+     * @return the number of cached entries.
+     */
+    public int cachedSize() {
+        return index.size();
+    }
+
+    /** Returns the number of searches answered from the cache. */
+    public long getHits() {return hits;}
+
+    /** Returns the number of searches not answered from the cache. */
+    public long getMisses() {return misses;}
+
+    /** Returns the number of entries evicted from the cache. */
+    public long getEvictions() {return evictions;}
+
+    /**
+     * Returns the fraction of searches answered from the cache.
+     * @return hits / (hits + misses), or 0 if there was no search.
+     */
+    public double getHitRate() {
+        long n = hits + misses;
+        return n == 0 ? 0 : (double) hits / n;
+    }
+}
@@ -0,0 +1,277 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Thread-safe implementation of the Dictionary interface as hash table with lock striping.
+ * <p>
+ * The table is split into segments, each guarded by its own lock.
+ * insert and remove lock only the segment of the key, search never locks:
+ * the chain links are final and a remove copies the nodes in front of the removed one,
+ * so a reader always sees a consistent chain.
+ * <p>
+ * The iterator is weakly consistent: it never throws a ConcurrentModificationException,
+ * returns every entry that existed when it was created and was not removed since,
+ * and may or may not reflect later modifications.
+ * <p>
+ * Neither keys nor values may be null.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class ConcurrentHashDictionary<K, V> implements Dictionary<K, V> {
+
+    private static final int DEF_CONCURRENCY_LEVEL = 16;
+    private static final int DEF_SEGMENT_CAPACITY = 16;
+
+    private static final class Node<K, V> {
+        final K key;
+        final int hash;
+        volatile V value;
+        final Node<K, V> next;
+
+        Node(K k, int h, V v, Node<K, V> n) {
+            key = k;
+            hash = h;
+            value = v;
+            next = n;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Segment<K, V> extends ReentrantLock {
+        volatile AtomicReferenceArray<Node<K, V>> table;
+        volatile int count = 0;
+
+        Segment(int capacity) {
+            table = new AtomicReferenceArray<>(capacity);
+        }
+
+        V search(K key, int h) {
+            AtomicReferenceArray<Node<K, V>> tab = table;
+            for (Node<K, V> e = tab.get(h & (tab.length() - 1)); e != null; e = e.next) {
+                if (e.hash == h && e.key.equals(key)) {
+                    return e.value;
+                }
+            }
+            return null;
+        }
+
+        V insert(K key, int h, V value) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int i = h & (tab.length() - 1);
+                Node<K, V> first = tab.get(i);
+                for (Node<K, V> e = first; e != null; e = e.next) {
+                    if (e.hash == h && e.key.equals(key)) {
+                        V oldValue = e.value;
+                        e.value = value;
+                        return oldValue;
+                    }
+                }
+                tab.set(i, new Node<>(key, h, value, first));
+                count++;
+                if (count > tab.length() * 3 / 4) {
+                    rehash(tab);
+                }
+                return null;
+            } finally {
+                unlock();
+            }
+        }
+
+        V remove(K key, int h) {
+            lock();
+            try {
+                AtomicReferenceArray<Node<K, V>> tab = table;
+                int i = h & (tab.length() - 1);
+                Node<K, V> first = tab.get(i);
+                Node<K, V> e = first;
+                while (e != null && !(e.hash == h && e.key.equals(key))) {
+                    e = e.next;
+                }
+                if (e == null) {
+                    return null;
+                }
+                // Knoten vor e werden kopiert, da next final ist.
+                Node<K, V> newFirst = e.next;
+                for (Node<K, V> p = first; p != e; p = p.next) {
+                    newFirst = new Node<>(p.key, p.hash, p.value, newFirst);
+                }
+                tab.set(i, newFirst);
+                count--;
+                return e.value;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Builds a table of twice the size and publishes it when complete.
+         * Readers still traversing the old table see its unchanged chains.
+         */
+        private void rehash(AtomicReferenceArray<Node<K, V>> tab) {
+            AtomicReferenceArray<Node<K, V>> newTab = new AtomicReferenceArray<>(tab.length() * 2);
+            int mask = newTab.length() - 1;
+            for (int i = 0; i < tab.length(); i++) {
+                for (Node<K, V> e = tab.get(i); e != null; e = e.next) {
+                    int j = e.hash & mask;
+                    newTab.set(j, new Node<>(e.key, e.hash, e.value, newTab.get(j)));
+                }
+            }
+            table = newTab;
+        }
+    }
+
+    private final Segment<K, V>[] segments;
+    private final int segmentShift;
+
+    public ConcurrentHashDictionary() {
+        this(DEF_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates an empty dictionary.
+     * @param concurrencyLevel expected number of concurrently updating threads;
+     * the number of segments is the next power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public ConcurrentHashDictionary(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive");
+        }
+        int n = 1;
+        int shift = 0;
+        while (n < concurrencyLevel) {
+            n *= 2;
+            shift++;
+        }
+        segmentShift = 32 - shift;
+        segments = new Segment[n];
+        for (int i = 0; i < n; i++) {
+            segments[i] = new Segment<>(DEF_SEGMENT_CAPACITY);
+        }
+    }
+
+    // Segment wird ueber die oberen, Bucket ueber die unteren Bits bestimmt,
+    // deshalb muessen alle Bits des hashCode gut durchmischt werden.
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        h *= 0x85ebca6b;
+        h ^= (h >>> 13);
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+
+    private Segment<K, V> segmentFor(int h) {
+        return segments.length == 1 ? segments[0] : segments[h >>> segmentShift];
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        int h = hash(key);
+        return segmentFor(h).insert(key, h, value);
+    }
+
+    @Override
+    public V search(K key) {
+        int h = hash(key);
+        return segmentFor(h).search(key, h);
+    }
+
+    @Override
+    public V remove(K key) {
+        int h = hash(key);
+        return segmentFor(h).remove(key, h);
+    }
+
+    /**
+     * Returns the number of entries.
+     * Under concurrent modification the result is only an estimate.
+     */
+    @Override
+    public int size() {
+        long n = 0;
+        for (Segment<K, V> s : segments) {
+            n += s.count;
+        }
+        return (int) Math.min(n, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new SegmentIterator(null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new SegmentIterator(new Dictionary.Entry<>(null, null));
+    }
+
+    /**
+     * Performs the action for each entry; weakly consistent like the iterator.
+     */
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Segment<K, V> s : segments) {
+            AtomicReferenceArray<Node<K, V>> tab = s.table;
+            for (int i = 0; i < tab.length(); i++) {
+                for (Node<K, V> e = tab.get(i); e != null; e = e.next) {
+                    action.accept(e.key, e.value);
+                }
+            }
+        }
+    }
+
+    private class SegmentIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private int segmentIndex = 0;
+        private AtomicReferenceArray<Node<K, V>> table = null;
+        private int bucket = 0;
+        private Node<K, V> p = null;
+        private final Dictionary.Entry<K, V> cursor;  // null: neuer Entry pro next()
+
+        SegmentIterator(Dictionary.Entry<K, V> cursor) {
+            this.cursor = cursor;
+            advance();
+        }
+
+        private void advance() {
+            if (p != null) {
+                p = p.next;
+            }
+            while (p == null) {
+                if (table != null && bucket < table.length()) {
+                    p = table.get(bucket++);
+                } else if (segmentIndex < segments.length) {
+                    table = segments[segmentIndex++].table;
+                    bucket = 0;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return p != null;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K k = p.key;
+            V v = p.value;
+            advance();
+            return (cursor == null) ? new Dictionary.Entry<>(k, v) : cursor.reset(k, v);
+        }
+    }
+}
@@ -1,7 +1,13 @@
 // O. Bittel
 // 26.09.2022
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 /**
  * Collection of entries.
@@ -31,6 +37,31 @@ public interface Dictionary<K,V> extends Iterable<Dictionary.Entry<K,V>> {
 	 */
 	V search(K key);
 
+	/**
+	 * Returns the values to which the specified keys are mapped, in the order of the keys
+	 * (null for a key that is not contained in this dictionary).
+	 * Implementations may process the keys in a different order to exploit locality.
+	 * @param keys the keys whose associated values are to be returned.
+	 * @return a list with the value of keys.get(i) at position i.
+	 */
+	default List<V> searchAll(List<? extends K> keys) {
+		List<V> values = new ArrayList<>(keys.size());
+		for (K key : keys) {
+			values.add(search(key));
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the values to which the specified keys are mapped, in the order of the keys.
+	 * @param keys the keys whose associated values are to be returned.
+	 * @return a list with the value of keys[i] at position i.
+	 * @see #searchAll(List)
+	 */
+	default List<V> searchAll(K[] keys) {
+		return searchAll(Arrays.asList(keys));
+	}
+
 	/**
 	 * Removes the key-vaue-pair associated with the key.
      * Returns the value to which the key was previously associated,
@@ -40,6 +71,76 @@ public interface Dictionary<K,V> extends Iterable<Dictionary.Entry<K,V>> {
 	 */
 	V remove(K key);
 
+	/**
+	 * Inserts all entries into this dictionary.
+	 * If a key occurs more than once, the value of the last entry wins.
+	 * Implementations may build their data structure in a single pass
+	 * instead of inserting one entry after the other.
+	 * @param entries entries to be inserted.
+	 */
+	default void insertAll(Iterable<? extends Entry<K, V>> entries) {
+		for (Entry<K, V> e : entries) {
+			insert(e.getKey(), e.getValue());
+		}
+	}
+
+	/**
+	 * Inserts all entries of other into this dictionary; the values of other win.
+	 * Sorted implementations merge both dictionaries in a single pass.
+	 * @param other dictionary whose entries are to be inserted.
+	 */
+	default void putAll(Dictionary<K, V> other) {
+		insertAll(other);
+	}
+
+	/**
+	 * Removes all given keys from this dictionary.
+	 * @param keys keys to be removed; keys that are not contained are ignored.
+	 * @return the number of removed entries.
+	 */
+	default int removeAll(Collection<? extends K> keys) {
+		int n = 0;
+		for (K key : keys) {
+			if (remove(key) != null) {
+				n++;
+			}
+		}
+		return n;
+	}
+
+	/**
+	 * Removes all entries for which filter returns true.
+	 * @param filter predicate on key and value.
+	 * @return the number of removed entries.
+	 */
+	default int removeIf(BiPredicate<? super K, ? super V> filter) {
+		List<K> keys = new ArrayList<>();
+		forEach((k, v) -> {
+			if (filter.test(k, v)) {
+				keys.add(k);
+			}
+		});
+		return removeAll(keys);
+	}
+
+	/**
+	 * Returns an immutable copy of this dictionary that is optimized for search.
+	 * Later changes of this dictionary do not affect the copy.
+	 * @return an immutable dictionary with the entries of this dictionary.
+	 */
+	default FrozenDictionary<K, V> freeze() {
+		return FrozenDictionary.of(this);
+	}
+
+	/**
+	 * Returns the structural statistics of this dictionary.
+	 * Statistics are only collected if the JVM is started with -Ddictionary.stats=true.
+	 * @return the statistics, or null if they are disabled or not supported by this implementation.
+	 */
+	default DictionaryStats stats() {
+		return null;
+	}
+
 	/**
 	 * Returns the number of elements in this dictionary.
 	 * @return the number of elements in this dictionary.
@@ -54,6 +155,31 @@ public interface Dictionary<K,V> extends Iterable<Dictionary.Entry<K,V>> {
 	 */
 	@Override
 	public Iterator<Entry<K, V>> iterator();
+
+	/**
+	 * Returns an iterator over the entries in this dictionary that does not allocate an entry per element.
+	 * Each call of next() returns the same Entry object, updated to the next key-value pair.
+	 * The returned entry is only valid until the next call of next(),
+	 * and setValue on it does not change this dictionary.
+	 * @return an Iterator over the entries in this dictionary reusing one Entry object.
+	 */
+	default Iterator<Entry<K, V>> cursor() {
+		return iterator();
+	}
+
+	/**
+	 * Performs the given action for each key-value pair in this dictionary.
+	 * The order is the same as for iterator().
+	 * Implementations traverse their data structure directly without creating entries.
+	 * @param action the action to be performed for each key-value pair.
+	 */
+	default void forEach(BiConsumer<? super K, ? super V> action) {
+		Iterator<Entry<K, V>> it = cursor();
+		while (it.hasNext()) {
+			Entry<K, V> e = it.next();
+			action.accept(e.getKey(), e.getValue());
+		}
+	}
 	
 	/**
 	 * A dictionary entry (key-value pair).
@@ -61,7 +187,7 @@ public interface Dictionary<K,V> extends Iterable<Dictionary.Entry<K,V>> {
 	 * @param <V> Value.
 	 */
 	class Entry<K,V> {
-		private final K key;
+		private K key;
 		private V value;
 
 		/**
@@ -96,5 +222,15 @@ public interface Dictionary<K,V> extends Iterable<Dictionary.Entry<K,V>> {
 			value = v;
 			return retVal;
 		}
+
+		/**
+		 * Replaces key and value; used by cursor iterators to reuse one entry.
+		 * @return this entry
+		 */
+		Entry<K, V> reset(K k, V v) {
+			key = k;
+			value = v;
+			return this;
+		}
 	}
 }
@@ -0,0 +1,383 @@
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Benchmark der verschiedenen Dictionary-Implementierungen.
+ */
+
+/**
+ * Micro benchmark for the Dictionary implementations.
+ * <p>
+ * Measures insert, search hit, search miss, batch search (searchAll), remove and full iteration
+ * for every combination of implementation, size and key distribution.
+ * Operation mixed runs a mix of searches, inserts and removes of random keys
+ * with several threads on one dictionary. With more than one thread it runs only for the thread-safe
+ * implementations ConcurrentHash, SkipList and SyncBinaryTree (a BinaryTreeDictionary with synchronized
+ * methods) and is skipped for the others.
+ * Each measurement runs a number of warm-up iterations followed by measured iterations
+ * and reports the mean throughput with its 99% confidence interval
+ * and the number of bytes allocated per operation (measured with the thread allocation counter).
+ * <p>
+ * Arguments (all optional, in the form name=value):
+ * <pre>
+ * impl=Hash,SortedArray,BinaryTree   implementations
+ * size=1000,10000,100000,1000000     sizes (up to 10000000)
+ * dist=dtengl,random,sequential      key distributions
+ * words=dtengl.txt                   word list of distribution dtengl
+ * warmup=3 iterations=5              warm-up and measured iterations
+ * op=insert,searchHit,...,mixed      operations
+ * threads=1 reads=90                 threads and percentage of searches of operation mixed
+ * </pre>
+ * Keys of distribution dtengl are the German words of the word list,
+ * extended by a numeric suffix when more keys than words are needed.
+ * Inserting n random keys into SortedArrayDictionary costs O(n^2) and is skipped above 50000 keys.
+ */
+public class DictionaryBenchmark {
+
+    private static final int SORTED_ARRAY_LIMIT = 50_000;
+    private static final String OPERATIONS = "insert,searchHit,searchMiss,searchAll,remove,iterate,mixed";
+    private static final Set<String> THREAD_SAFE = Set.of("ConcurrentHash", "SkipList", "SyncBinaryTree");
+
+    private static final Map<String, Supplier<Dictionary<String, String>>> IMPLEMENTATIONS = new HashMap<>();
+    static {
+        IMPLEMENTATIONS.put("Hash", HashDictionary::new);
+        IMPLEMENTATIONS.put("SortedArray", SortedArrayDictionary::new);
+        IMPLEMENTATIONS.put("BinaryTree", BinaryTreeDictionary::new);
+        IMPLEMENTATIONS.put("OpenHash", OpenHashDictionary::new);
+        IMPLEMENTATIONS.put("ConcurrentHash", ConcurrentHashDictionary::new);
+        IMPLEMENTATIONS.put("BPlusTree", BPlusTreeDictionary::new);
+        IMPLEMENTATIONS.put("PersistentTree", PersistentTreeDictionary::new);
+        IMPLEMENTATIONS.put("SkipList", SkipListDictionary::new);
+        IMPLEMENTATIONS.put("Adaptive", AdaptiveDictionary::new);
+        IMPLEMENTATIONS.put("FilteredBinaryTree", () -> new FilteredDictionary<>(new BinaryTreeDictionary<String, String>()));
+        IMPLEMENTATIONS.put("SyncBinaryTree", () -> new SynchronizedDictionary<>(new BinaryTreeDictionary<String, String>()));
+    }
+
+    // verhindert, dass der JIT-Compiler Ergebnisse wegoptimiert
+    private static volatile int sink;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final int warmup;
+    private final int iterations;
+    private final int threads;
+    private final int reads;
+    private final AtomicLong workerBytes = new AtomicLong();
+
+    private DictionaryBenchmark(int warmup, int iterations, int threads, int reads) {
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.threads = threads;
+        this.reads = reads;
+    }
+
+    /**
+     * Dictionary whose methods are synchronized on the dictionary; reference for the mixed operation.
+     */
+    private static class SynchronizedDictionary<K, V> implements Dictionary<K, V> {
+        private final Dictionary<K, V> dict;
+
+        SynchronizedDictionary(Dictionary<K, V> dict) {
+            this.dict = dict;
+        }
+
+        @Override
+        public synchronized V insert(K key, V value) {
+            return dict.insert(key, value);
+        }
+
+        @Override
+        public synchronized V search(K key) {
+            return dict.search(key);
+        }
+
+        @Override
+        public synchronized V remove(K key) {
+            return dict.remove(key);
+        }
+
+        @Override
+        public synchronized void insertAll(Iterable<? extends Dictionary.Entry<K, V>> entries) {
+            dict.insertAll(entries);
+        }
+
+        @Override
+        public synchronized int size() {
+            return dict.size();
+        }
+
+        @Override
+        public Iterator<Dictionary.Entry<K, V>> iterator() {
+            return dict.iterator();
+        }
+    }
+
+    /**
+     * @param args see class comment.
+     * @throws IOException if the word list cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> opt = new HashMap<>();
+        opt.put("impl", "Hash,SortedArray,BinaryTree");
+        opt.put("size", "1000,10000,100000,1000000");
+        opt.put("dist", "dtengl,random,sequential");
+        opt.put("words", "dtengl.txt");
+        opt.put("warmup", "3");
+        opt.put("iterations", "5");
+        opt.put("op", OPERATIONS);
+        opt.put("threads", "1");
+        opt.put("reads", "90");
+        for (String arg : args) {
+            int i = arg.indexOf('=');
+            if (i < 0 || !opt.containsKey(arg.substring(0, i))) {
+                System.out.println("Unbekanntes Argument: " + arg);
+                return;
+            }
+            opt.put(arg.substring(0, i), arg.substring(i + 1));
+        }
+
+        DictionaryBenchmark bench = new DictionaryBenchmark(
+                Integer.parseInt(opt.get("warmup")), Integer.parseInt(opt.get("iterations")),
+                Integer.parseInt(opt.get("threads")), Integer.parseInt(opt.get("reads")));
+        List<String> words = opt.get("dist").contains("dtengl") ? readWords(opt.get("words")) : null;
+
+        System.out.println(String.format(Locale.ROOT, "%-14s %-10s %9s %-10s %16s %10s %10s",
+                "impl", "dist", "size", "op", "ops/s", "error", "B/op"));
+        for (String dist : opt.get("dist").split(",")) {
+            for (String size : opt.get("size").split(",")) {
+                int n = Integer.parseInt(size);
+                String[] keys = keys(dist, n, words, new Random(1));
+                String[] misses = missKeys(keys);
+                for (String impl : opt.get("impl").split(",")) {
+                    Supplier<Dictionary<String, String>> factory = IMPLEMENTATIONS.get(impl);
+                    if (factory == null) {
+                        System.out.println("Unbekannte Implementierung: " + impl);
+                        continue;
+                    }
+                    for (String op : opt.get("op").split(",")) {
+                        String label = String.format(Locale.ROOT, "%-14s %-10s %9d %-10s", impl, dist, n, op);
+                        if (impl.equals("SortedArray") && n > SORTED_ARRAY_LIMIT
+                                && (op.equals("insert") || op.equals("remove") || op.equals("mixed")) && !dist.equals("sequential")) {
+                            System.out.println(label + "  skipped (O(n^2))");
+                            continue;
+                        }
+                        if (op.equals("mixed") && bench.threads > 1 && !THREAD_SAFE.contains(impl)) {
+                            System.out.println(label + "  skipped (not thread-safe)");
+                            continue;
+                        }
+                        System.out.println(label + " " + bench.run(factory, op, keys, misses));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs warm-up and measured iterations of one operation and formats the result.
+     */
+    private String run(Supplier<Dictionary<String, String>> factory, String op, String[] keys, String[] misses) {
+        double[] opsPerSec = new double[iterations];
+        long bytes = 0;
+        long totalOps = 0;
+        List<Dictionary.Entry<String, String>> entries = new ArrayList<>(keys.length);
+        for (String k : keys) {
+            entries.add(new Dictionary.Entry<>(k, k));
+        }
+        for (int it = -warmup; it < iterations; it++) {
+            // Vorbereitung (nicht gemessen)
+            Dictionary<String, String> dict = factory.get();
+            if (!op.equals("insert")) {
+                dict.insertAll(entries);
+            }
+            long threadId = Thread.currentThread().getId();
+            workerBytes.set(0);
+            long allocated = THREADS.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            int ops = execute(dict, op, keys, misses);
+            long duration = System.nanoTime() - start;
+            allocated = THREADS.getThreadAllocatedBytes(threadId) - allocated + workerBytes.get();
+            if (it >= 0) {
+                opsPerSec[it] = ops * 1e9 / Math.max(1, duration);
+                bytes += allocated;
+                totalOps += ops;
+            }
+        }
+        double mean = Arrays.stream(opsPerSec).average().orElse(0);
+        double var = Arrays.stream(opsPerSec).map(x -> (x - mean) * (x - mean)).sum() / Math.max(1, iterations - 1);
+        double error = 2.576 * Math.sqrt(var / iterations);
+        return String.format(Locale.ROOT, "%16.0f %10.0f %10.1f", mean, error, (double) bytes / Math.max(1, totalOps));
+    }
+
+    private int execute(Dictionary<String, String> dict, String op, String[] keys, String[] misses) {
+        int h = 0;
+        switch (op) {
+            case "insert":
+                for (String k : keys) {
+                    dict.insert(k, k);
+                }
+                h = dict.size();
+                break;
+            case "searchHit":
+                for (String k : keys) {
+                    h += dict.search(k).length();
+                }
+                break;
+            case "searchMiss":
+                for (String k : misses) {
+                    h += (dict.search(k) == null) ? 1 : 0;
+                }
+                break;
+            case "searchAll":
+                for (String v : dict.searchAll(keys)) {
+                    h += v.length();
+                }
+                break;
+            case "remove":
+                for (String k : keys) {
+                    h += dict.remove(k).length();
+                }
+                break;
+            case "iterate":
+                for (Iterator<Dictionary.Entry<String, String>> i = dict.iterator(); i.hasNext();) {
+                    h += i.next().getKey().length();
+                }
+                break;
+            case "mixed":
+                h = mixed(dict, keys);
+                break;
+            default:
+                throw new IllegalArgumentException(op);
+        }
+        sink += h;
+        return keys.length;
+    }
+
+    /**
+     * Runs keys.length operations on random keys, distributed over the threads:
+     * reads percent searches, the rest are inserts and removes in equal parts.
+     */
+    private int mixed(Dictionary<String, String> dict, String[] keys) {
+        Thread[] workers = new Thread[threads];
+        int[] results = new int[threads];
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            int ops = keys.length / threads + (t < keys.length % threads ? 1 : 0);
+            workers[t] = new Thread(() -> {
+                long threadId = Thread.currentThread().getId();
+                long allocated = THREADS.getThreadAllocatedBytes(threadId);
+                SplittableRandom rnd = new SplittableRandom(id);
+                int h = 0;
+                for (int i = 0; i < ops; i++) {
+                    String k = keys[rnd.nextInt(keys.length)];
+                    int r = rnd.nextInt(100);
+                    if (r < reads) {
+                        h += (dict.search(k) == null) ? 0 : 1;
+                    } else if ((r & 1) == 0) {
+                        h += (dict.insert(k, k) == null) ? 0 : 1;
+                    } else {
+                        h += (dict.remove(k) == null) ? 0 : 1;
+                    }
+                }
+                results[id] = h;
+                workerBytes.addAndGet(THREADS.getThreadAllocatedBytes(threadId) - allocated);
+            });
+        }
+        for (Thread w : workers) {
+            w.start();
+        }
+        int h = 0;
+        for (int t = 0; t < threads; t++) {
+            try {
+                workers[t].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            h += results[t];
+        }
+        return h;
+    }
+
+    private static List<String> readWords(String file) throws IOException {
+        List<String> words = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                StringTokenizer st = new StringTokenizer(line);
+                if (st.hasMoreTokens()) {
+                    words.add(st.nextToken());
+                }
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns n distinct keys of the given distribution in random order
+     * (in ascending order for distribution sequential).
+     */
+    private static String[] keys(String dist, int n, List<String> words, Random rnd) {
+        List<String> keys = new ArrayList<>(n);
+        switch (dist) {
+            case "dtengl":
+                List<String> distinct = new ArrayList<>(new LinkedHashSet<>(words));
+                for (int i = 0; keys.size() < n; i++) {
+                    String w = distinct.get(i % distinct.size());
+                    keys.add(i < distinct.size() ? w : w + (i / distinct.size()));
+                }
+                Collections.shuffle(keys, rnd);
+                break;
+            case "random":
+                Set<String> seen = new HashSet<>();
+                char[] c = new char[10];
+                while (keys.size() < n) {
+                    for (int i = 0; i < c.length; i++) {
+                        c[i] = (char) ('a' + rnd.nextInt(26));
+                    }
+                    String k = new String(c);
+                    if (seen.add(k)) {
+                        keys.add(k);
+                    }
+                }
+                break;
+            case "sequential":
+                for (int i = 0; i < n; i++) {
+                    keys.add(String.format("key%08d", i));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown distribution " + dist);
+        }
+        return keys.toArray(new String[0]);
+    }
+
+    /**
+     * Returns keys that are not contained in keys (same length distribution).
+     */
+    private static String[] missKeys(String[] keys) {
+        String[] misses = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            misses[i] = keys[i] + "#";
+        }
+        return misses;
+    }
+}
@@ -0,0 +1,289 @@
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+
+/**
+ * Structural statistics of a dictionary.
+ * <p>
+ * Statistics are collected only if the JVM is started with -Ddictionary.stats=true.
+ * ENABLED is a constant, so when it is false the JIT compiler removes all instrumentation code
+ * and the dictionaries do not even create a DictionaryStats object (stats() returns null).
+ * <p>
+ * Depending on the implementation the following values are recorded:
+ * <ul>
+ * <li>probe length histogram: length of the chain (HashDictionary) or of the probe sequence
+ * (OpenHashDictionary) looked at by each search, insert and remove,</li>
+ * <li>capacity and load factor, number of resizes and time spent resizing,</li>
+ * <li>tree height and rotations per insert (BinaryTreeDictionary),</li>
+ * <li>number of entries moved per insert and remove (SortedArrayDictionary).</li>
+ * </ul>
+ * The values are also available as JFR events: dictionary.Resize for every resize and
+ * dictionary.Statistics once per second for every dictionary in use.
+ * A DictionaryStats object is not thread-safe, like the dictionaries it belongs to.
+ */
+public final class DictionaryStats {
+
+    /**
+     * true if statistics are collected (system property dictionary.stats).
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("dictionary.stats");
+
+    private static final int HISTOGRAM_SIZE = 16;
+
+    // Statistiken aller lebenden Dictionaries fuer das periodische JFR-Event
+    private static final Set<DictionaryStats> LIVE = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    static {
+        if (ENABLED) {
+            FlightRecorder.addPeriodicEvent(StatisticsEvent.class, DictionaryStats::emitStatistics);
+        }
+    }
+
+    @Name("dictionary.Resize")
+    @Label("Dictionary Resize")
+    @Category("Dictionary")
+    @Description("Resize of the table of a hash dictionary")
+    static class ResizeEvent extends Event {
+        @Label("Dictionary")
+        String dictionary;
+
+        @Label("Old Capacity")
+        int oldCapacity;
+
+        @Label("New Capacity")
+        int newCapacity;
+
+        @Label("Size")
+        int size;
+    }
+
+    @Name("dictionary.Statistics")
+    @Label("Dictionary Statistics")
+    @Category("Dictionary")
+    @Period("1 s")
+    static class StatisticsEvent extends Event {
+        @Label("Dictionary")
+        String dictionary;
+
+        @Label("Size")
+        int size;
+
+        @Label("Capacity")
+        int capacity;
+
+        @Label("Load Factor")
+        double loadFactor;
+
+        @Label("Mean Probe Length")
+        double meanProbeLength;
+
+        @Label("Resizes")
+        long resizes;
+
+        @Label("Height")
+        int height;
+
+        @Label("Rotations per Insert")
+        double rotationsPerInsert;
+
+        @Label("Mean Shift Distance")
+        double meanShiftDistance;
+    }
+
+    private static void emitStatistics() {
+        DictionaryStats[] all;
+        synchronized (LIVE) {
+            all = LIVE.toArray(new DictionaryStats[0]);
+        }
+        for (DictionaryStats s : all) {
+            StatisticsEvent event = new StatisticsEvent();
+            event.dictionary = s.name;
+            event.size = s.dict.size();
+            event.capacity = s.capacity;
+            event.loadFactor = s.getLoadFactor();
+            event.meanProbeLength = s.getMeanProbeLength();
+            event.resizes = s.resizes;
+            event.height = s.height;
+            event.rotationsPerInsert = s.getRotationsPerInsert();
+            event.meanShiftDistance = s.getMeanShiftDistance();
+            event.commit();
+        }
+    }
+
+    private final Dictionary<?, ?> dict;
+    private final String name;
+    private final long[] probes = new long[HISTOGRAM_SIZE];
+    private long probeSum = 0;
+    private int capacity = 0;
+    private long resizes = 0;
+    private long resizeNanos = 0;
+    private ResizeEvent pendingResize = null;
+    private int height = -1;
+    private long inserts = 0;
+    private long rotations = 0;
+    private long shifts = 0;
+    private long shiftDistance = 0;
+
+    /**
+     * Creates the statistics of dict; only called if ENABLED is set.
+     */
+    DictionaryStats(Dictionary<?, ?> dict) {
+        this.dict = dict;
+        this.name = dict.getClass().getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(dict));
+        LIVE.add(this);
+    }
+
+    void recordProbe(int length) {
+        probes[Math.min(length, HISTOGRAM_SIZE - 1)]++;
+        probeSum += length;
+    }
+
+    void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Records the start of a resize; for incremental rehashing the resize ends with resizeFinished.
+     */
+    void resizeStarted(int oldCapacity, int newCapacity) {
+        resizes++;
+        capacity = newCapacity;
+        pendingResize = new ResizeEvent();
+        pendingResize.begin();
+        pendingResize.dictionary = name;
+        pendingResize.oldCapacity = oldCapacity;
+        pendingResize.newCapacity = newCapacity;
+    }
+
+    void resizeFinished() {
+        if (pendingResize != null) {
+            pendingResize.size = dict.size();
+            pendingResize.commit();
+            pendingResize = null;
+        }
+    }
+
+    /**
+     * Adds time spent moving entries to the new table.
+     */
+    void addResizeTime(long nanos) {
+        resizeNanos += nanos;
+    }
+
+    void recordInsert() {
+        inserts++;
+    }
+
+    void recordRotation() {
+        rotations++;
+    }
+
+    void setHeight(int height) {
+        this.height = height;
+    }
+
+    void recordShift(int distance) {
+        shifts++;
+        shiftDistance += distance;
+    }
+
+    /**
+     * Returns the probe length histogram: element i is the number of operations that looked at
+     * i entries; the last element counts all longer probe sequences.
+     * @return a copy of the histogram.
+     */
+    public long[] getProbeHistogram() {
+        return probes.clone();
+    }
+
+    /** Returns the mean number of entries looked at per operation. */
+    public double getMeanProbeLength() {
+        long n = 0;
+        for (long p : probes) {
+            n += p;
+        }
+        return n == 0 ? 0 : (double) probeSum / n;
+    }
+
+    /** Returns the number of slots or buckets of the table (0 if there is no table). */
+    public int getCapacity() {return capacity;}
+
+    /** Returns size / capacity, or NaN if there is no table. */
+    public double getLoadFactor() {
+        return capacity == 0 ? Double.NaN : (double) dict.size() / capacity;
+    }
+
+    /** Returns the number of resizes of the table. */
+    public long getResizeCount() {return resizes;}
+
+    /** Returns the time spent moving entries into new tables in nanoseconds. */
+    public long getResizeNanos() {return resizeNanos;}
+
+    /** Returns the height of the tree (-1 for an empty tree or if there is no tree). */
+    public int getHeight() {return height;}
+
+    /** Returns the number of rotations. */
+    public long getRotations() {return rotations;}
+
+    /** Returns the number of rotations of insert and remove divided by the number of inserts. */
+    public double getRotationsPerInsert() {
+        return inserts == 0 ? 0 : (double) rotations / inserts;
+    }
+
+    /** Returns the mean number of entries moved per insert and remove. */
+    public double getMeanShiftDistance() {
+        return shifts == 0 ? 0 : (double) shiftDistance / shifts;
+    }
+
+    /**
+     * Resets all counters; capacity and height are kept.
+     */
+    public void reset() {
+        Arrays.fill(probes, 0);
+        probeSum = 0;
+        resizes = 0;
+        resizeNanos = 0;
+        inserts = 0;
+        rotations = 0;
+        shifts = 0;
+        shiftDistance = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(name).append(": size ").append(dict.size());
+        if (capacity > 0) {
+            sb.append(String.format(Locale.ROOT, ", capacity %d, load factor %.2f, resizes %d (%.1f ms)",
+                    capacity, getLoadFactor(), resizes, resizeNanos / 1e6));
+        }
+        if (probeSum > 0) {
+            sb.append(String.format(Locale.ROOT, ", mean probe length %.2f, histogram", getMeanProbeLength()));
+            int last = HISTOGRAM_SIZE - 1;
+            while (last > 0 && probes[last] == 0) {
+                last--;
+            }
+            for (int i = 0; i <= last; i++) {
+                sb.append(i == 0 ? " " : " | ").append(i).append(i == HISTOGRAM_SIZE - 1 ? "+: " : ": ").append(probes[i]);
+            }
+        }
+        if (height >= 0) {
+            sb.append(String.format(Locale.ROOT, ", height %d, rotations per insert %.2f",
+                    height, getRotationsPerInsert()));
+        }
+        if (shifts > 0) {
+            sb.append(String.format(Locale.ROOT, ", mean shift distance %.1f", getMeanShiftDistance()));
+        }
+        return sb.toString();
+    }
+}
@@ -3,8 +3,12 @@ import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Scanner;
-import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.print.DocFlavor.INPUT_STREAM;
 import javax.swing.JFileChooser;
@@ -36,8 +40,43 @@ public static void main(String[] args)  {
 	String[] words = input.split(" ");
 	String firstWord = words[0];
 
-	if (firstWord.equals("create")) {
-		Dictionary<String, String> dict = new BinaryTreeDictionary<>(); // SortedArrayDictionary<>(); // HashDictionary<>(); // BinaryTreeDictionary<>();
+	if (firstWord.equals("create") || firstWord.equals("open") || firstWord.equals("durable")) {
+		Dictionary<String, String> dict;
+		if (firstWord.equals("durable")) {
+			// Snapshot + Write-Ahead-Log im Verzeichnis; "i" und "d" bleiben ueber das Programmende erhalten.
+			startTime = System.nanoTime();
+			try {
+				dict = DurableDictionary.open(new File(words[1]), new BinaryTreeDictionary<>());
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
+			}
+			duration = System.nanoTime() - startTime;
+			System.out.println(dict.size() + " Einträge in " + (duration / 1_000_000) + " Millisekunden wiederhergestellt");
+		} else if (firstWord.equals("open")) {
+			// Snapshot (siehe Befehl "save") wird nur eingeblendet, nicht eingelesen.
+			startTime = System.nanoTime();
+			try {
+				dict = MappedDictionary.open(new File(words[1]));
+			} catch (IOException e) {
+				e.printStackTrace();
+				return;
+			}
+			duration = System.nanoTime() - startTime;
+			System.out.println(dict.size() + " Einträge in " + (duration / 1_000) + " Mikrosekunden geöffnet");
+		} else {
+			// create [tree|sorted|hash|adaptive]: "page" und "rank" brauchen tree, "compact" braucht sorted
+			String type = words.length > 1 ? words[1] : "tree";
+			if (type.equals("sorted")) {
+				dict = new SortedArrayDictionary<>();
+			} else if (type.equals("hash")) {
+				dict = new HashDictionary<>();
+			} else if (type.equals("adaptive")) {
+				dict = new AdaptiveDictionary<>();
+			} else {
+				dict = new BinaryTreeDictionary<>(); // OpenHashDictionary<>(); // ConcurrentHashDictionary<>(); // BPlusTreeDictionary<>(); // RadixTrieDictionary<>(); // ArenaDictionary(); // PersistentTreeDictionary<>(); // SkipListDictionary<>();
+			}
+		}
 	
 		while (true) {
 
@@ -66,45 +105,90 @@ public static void main(String[] args)  {
 				File selectedFile = fileChooser.getSelectedFile();
 				System.out.println("Ausgewählte Datei: " + selectedFile.getAbsolutePath());
 
-				startTime = System.nanoTime();
-
-				try (BufferedReader reader = new BufferedReader(new FileReader(selectedFile))) {
-					for (int i = 0; i < n; i++) {
-						String line = reader.readLine();
-						if (line != null) {
-							StringTokenizer st = new StringTokenizer(line);
-							if (st.hasMoreTokens()) {
-								String fW = st.nextToken();
-								if (st.hasMoreTokens()) {
-									String sW = st.nextToken();
-									dict.insert(fW, sW);
-								}
-							}
-						} else {
-							break;
-						}
-					}
+				try {
+					WordListLoader.Result r = new WordListLoader().load(selectedFile, n, dict);
+					duration = r.getNanos();
+					System.out.println("Alle " + r.getLines() + " Zeilen (" + r.getEntries() + " Einträge), wurden in " + (duration / 1_000_000) + " Milisekunden (" + duration + " Nanosekunden) eingetragen");
+					System.out.println((long) r.getLinesPerSecond() + " Zeilen/s");
 				} catch (IOException e) {
 					e.printStackTrace();
 				}
-				endTime = System.nanoTime();
-				duration = endTime - startTime;
-				System.out.println("Alle " + n + " Einträge, wurden in " + (duration / 1_000_000) + " Milisekunden (" + duration + " Nanosekunden) eingetragen");
 			}
 		} else if (firstWord.equals("p")) {
-			for (Dictionary.Entry<String, String> e : dict) {
-				System.out.println(e.getKey() + ": " + e.getValue() + " search: " + dict.search(e.getKey()));
-			}
+			dict.forEach((k, v) -> System.out.println(k + ": " + v + " search: " + dict.search(k)));
 
 		} else if (firstWord.equals("s")) {
 			System.out.println(dict.search(secondWord));
 			
+		} else if (firstWord.equals("save")) {
+			try {
+				MappedDictionary.save(dict, new File(secondWord));
+				System.out.println("Snapshot saved!");
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+
+		} else if (firstWord.equals("range")) {
+			// range [von [bis]]: eine fehlende Grenze ist unbeschraenkt
+			if (dict instanceof OrderedDictionary) {
+				Iterator<Dictionary.Entry<String, String>> it = ((OrderedDictionary<String, String>) dict).range(secondWord, thirdWord);
+				while (it.hasNext()) {
+					Dictionary.Entry<String, String> e = it.next();
+					System.out.println(e.getKey() + ": " + e.getValue());
+				}
+			} else {
+				System.out.println("Dictionary ist nicht geordnet!");
+			}
+
+		} else if (firstWord.equals("prefix")) {
+			if (dict instanceof RadixTrieDictionary) {
+				Iterator<Dictionary.Entry<String, String>> it = ((RadixTrieDictionary<String>) dict).prefixIterator(secondWord);
+				while (it.hasNext()) {
+					Dictionary.Entry<String, String> e = it.next();
+					System.out.println(e.getKey() + ": " + e.getValue());
+				}
+			} else {
+				System.out.println("Dictionary ist kein RadixTrieDictionary!");
+			}
+
+		} else if (firstWord.equals("stats")) {
+			if (dict.stats() != null) {
+				System.out.println(dict.stats());
+			} else {
+				System.out.println("Keine Statistik (Start mit -Ddictionary.stats=true)!");
+			}
+
+		} else if (firstWord.equals("compact")) {
+			if (dict instanceof SortedArrayDictionary) {
+				((SortedArrayDictionary<String, String>) dict).compact();
+				System.out.println("Lesemodus bis zur nächsten Änderung!");
+			} else {
+				System.out.println("Dictionary ist kein SortedArrayDictionary (create sorted)!");
+			}
+
+		} else if (firstWord.equals("page")) {
+			// page k n: n Einträge ab Rang k
+			if (dict instanceof BinaryTreeDictionary) {
+				Iterator<Dictionary.Entry<String, String>> it = ((BinaryTreeDictionary<String, String>) dict).iterator(Integer.parseInt(secondWord));
+				for (int n = Integer.parseInt(thirdWord); n > 0 && it.hasNext(); n--) {
+					Dictionary.Entry<String, String> e = it.next();
+					System.out.println(e.getKey() + ": " + e.getValue());
+				}
+			} else {
+				System.out.println("Dictionary ist kein BinaryTreeDictionary (create tree)!");
+			}
+
+		} else if (firstWord.equals("rank")) {
+			if (dict instanceof BinaryTreeDictionary) {
+				System.out.println(((BinaryTreeDictionary<String, String>) dict).rank(secondWord));
+			} else {
+				System.out.println("Dictionary ist kein BinaryTreeDictionary (create tree)!");
+			}
+
 		} else if (firstWord.equals("listde")) {
 			File file = new File("worldlist.txt");
 			try (PrintWriter writer = new PrintWriter(file)) {
-				for (Dictionary.Entry<String, String> e : dict) {
-					writer.println(e.getKey());
-				}
+				dict.forEach((k, v) -> writer.println(k));
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -113,9 +197,7 @@ public static void main(String[] args)  {
 		} else if (firstWord.equals("listen")) {
 			File file = new File("worldlist.txt");
 			try (PrintWriter writer = new PrintWriter(file)) {
-				for (Dictionary.Entry<String, String> e : dict) {
-					writer.println(e.getValue());
-				}
+				dict.forEach((k, v) -> writer.println(v));
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -125,9 +207,13 @@ public static void main(String[] args)  {
 			startTime = System.nanoTime();
 
 			try (BufferedReader reader = new BufferedReader(new FileReader("worldlist.txt"))) {
+				List<String> probes = new ArrayList<>();
 				String line;
 				while ((line = reader.readLine()) != null) {
-					System.out.println(dict.search(line));
+					probes.add(line);
+				}
+				for (String value : dict.searchAll(probes)) {
+					System.out.println(value);
 				}
 			} catch (IOException e) {
 				e.printStackTrace();
@@ -139,14 +225,37 @@ public static void main(String[] args)  {
 
 
 		} else if (firstWord.equals("i")) {
-			dict.insert(secondWord, thirdWord);
-			System.out.println("Inserted!");
+			if (secondWord == null || thirdWord == null) {
+				System.out.println("Aufruf: i <Wort> <Uebersetzung>");
+			} else {
+				dict.insert(secondWord, thirdWord);
+				System.out.println("Inserted!");
+			}
 		
 		} else if (firstWord.equals("d")) {
 			dict.remove(secondWord);
 			System.out.println("Removed!");
 
+		} else if (firstWord.equals("checkpoint")) {
+			if (dict instanceof DurableDictionary) {
+				try {
+					((DurableDictionary) dict).checkpoint();
+					System.out.println("Checkpoint erstellt!");
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			} else {
+				System.out.println("Dictionary ist nicht dauerhaft!");
+			}
+
 		} else if (firstWord.equals("exit")) {
+			if (dict instanceof DurableDictionary) {
+				try {
+					((DurableDictionary) dict).close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
 			break;
 		} else {
 			System.out.println("Falsche Eingabe!");
@@ -158,6 +267,34 @@ public static void main(String[] args)  {
 
 			// testHashDictionary();
 
+			// testOpenHashDictionary();
+
+			// testConcurrentHashDictionary();
+
+			// testBPlusTreeDictionary();
+
+			// testRadixTrieDictionary();
+
+			// testArenaDictionary();
+
+			// testCachingDictionary();
+
+			// testFilteredDictionary();
+
+			// testFrozenDictionary();
+
+			// testPersistentTreeDictionary();
+
+			// testSkipListDictionary();
+
+			// testConcurrentSkipListDictionary();
+
+			// testIntDictionary();
+
+			// testAdaptiveDictionary();
+
+			// testBulkOperations();
+
 	testBinaryTreeDictionary();
 	}
 }
@@ -172,6 +309,187 @@ public static void main(String[] args)  {
  	// 	testDict(dict);
 	// }
 	
+	private static void testOpenHashDictionary() {
+		Dictionary<String, String> dict = new OpenHashDictionary<>();
+		testDict(dict);
+	}
+	
+	private static void testConcurrentHashDictionary() {
+		Dictionary<String, String> dict = new ConcurrentHashDictionary<>();
+		testDict(dict);
+	}
+	
+	private static void testBPlusTreeDictionary() {
+		Dictionary<String, String> dict = new BPlusTreeDictionary<>(4);
+		testDict(dict);
+	}
+	
+	private static void testRadixTrieDictionary() {
+		Dictionary<String, String> dict = new RadixTrieDictionary<>();
+		testDict(dict);
+	}
+	
+	private static void testArenaDictionary() {
+		try (ArenaDictionary dict = new ArenaDictionary()) {
+			testDict(dict);
+		}
+	}
+	
+	private static void testCachingDictionary() {
+		CachingDictionary<String, String> dict = new CachingDictionary<>(
+				new HashDictionary<>(), 4, CachingDictionary.Policy.TINY_LFU, null);
+		testDict(dict);
+		System.out.println("hits: " + dict.getHits() + " misses: " + dict.getMisses()
+				+ " evictions: " + dict.getEvictions());
+	}
+	
+	private static void testFilteredDictionary() {
+		FilteredDictionary<String, String> dict = new FilteredDictionary<>(new SortedArrayDictionary<String, String>(), 0.01);
+		testDict(dict);
+		System.out.println("rejected: " + dict.getRejected() + " false positives: " + dict.getFalsePositives());
+	}
+	
+	private static void testFrozenDictionary() {
+		Dictionary<String, String> dict = new HashDictionary<>();
+		testDict(dict);
+		Dictionary<String, String> frozen = dict.freeze();
+		System.out.println(frozen.size() == dict.size());			// true
+		for (Dictionary.Entry<String, String> e : dict) {
+			System.out.println(e.getKey() + ": " + frozen.search(e.getKey()));
+		}
+		System.out.println(frozen.search("testen") == null);		// true
+	}
+	
+	private static void testPersistentTreeDictionary() {
+		PersistentTreeDictionary<String, String> dict = new PersistentTreeDictionary<>();
+		testDict(dict);
+		Dictionary<String, String> snapshot = dict.snapshot();
+		dict.remove("gehen");
+		dict.insert("testen", "test");
+		System.out.println(snapshot.search("gehen") != null);		// true
+		System.out.println(snapshot.search("testen") == null);		// true
+		System.out.println(snapshot.size() == dict.size());			// true
+	}
+	
+	private static void testSkipListDictionary() {
+		Dictionary<String, String> dict = new SkipListDictionary<>();
+		testDict(dict);
+	}
+	
+	private static void testConcurrentSkipListDictionary() {
+		SkipListDictionary<Integer, Integer> dict = new SkipListDictionary<>();
+		int n = 40000;
+		int threads = 4;
+		AtomicInteger inserted = new AtomicInteger();
+		AtomicInteger removed = new AtomicInteger();
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicBoolean ordered = new AtomicBoolean(true);
+		Thread[] writers = new Thread[threads];
+		for (int t = 0; t < threads; t++) {
+			int id = t;
+			writers[t] = new Thread(() -> {
+				// getrennte Schluessel: jeder Thread fuegt i = id (mod threads) ein und loescht die Haelfte davon
+				for (int i = id; i < n; i += threads) {
+					dict.insert(i, i);
+				}
+				for (int i = id; i < n; i += 2 * threads) {
+					dict.remove(i);
+				}
+				// gemeinsame Schluessel: alle Threads konkurrieren um dieselben Knoten
+				for (int i = n; i < 2 * n; i++) {
+					if (dict.insert(i, id) == null) {
+						inserted.incrementAndGet();
+					}
+				}
+				for (int i = n; i < 2 * n; i++) {
+					if (dict.remove(i) != null) {
+						removed.incrementAndGet();
+					}
+				}
+			});
+		}
+		Thread reader = new Thread(() -> {
+			while (!done.get()) {
+				Integer prev = null;
+				for (Dictionary.Entry<Integer, Integer> e : dict) {
+					if (prev != null && prev >= e.getKey()) {
+						ordered.set(false);
+					}
+					prev = e.getKey();
+				}
+			}
+		});
+		reader.start();
+		for (Thread w : writers) {
+			w.start();
+		}
+		try {
+			for (Thread w : writers) {
+				w.join();
+			}
+			done.set(true);
+			reader.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		boolean contents = true;
+		for (int i = 0; i < 2 * n; i++) {
+			boolean expected = i < n && i % (2 * threads) >= threads;
+			if ((dict.search(i) != null) != expected) {
+				contents = false;
+			}
+		}
+		// ein Schluessel kann nach dem Loeschen von einem langsameren Thread erneut eingefuegt werden
+		System.out.println(inserted.get() == removed.get() && inserted.get() >= n);	// true
+		System.out.println(dict.size() == n / 2);						// true
+		System.out.println(contents);									// true
+		System.out.println(ordered.get());								// true
+	}
+	
+	private static void testAdaptiveDictionary() {
+		AdaptiveDictionary<String, String> dict = new AdaptiveDictionary<>();
+		testDict(dict);
+		System.out.println(dict.getRepresentation());				// SORTED_ARRAY
+	}
+	
+	private static void testIntDictionary() {
+		IntDictionary<String> dict = new IntDictionary<>();
+		IntDoubleDictionary costs = new IntDoubleDictionary();
+		for (int i = 1; i <= 199; i++) {
+			dict.insert(i, "Station " + i);
+			costs.insert(i, i * 0.5);
+		}
+		dict.remove(42);
+		costs.remove(42);
+		System.out.println(dict.search(42) == null);				// true
+		System.out.println(Double.isNaN(costs.search(42)));			// true
+		System.out.println(dict.search(108) + ": " + costs.search(108));	// Station 108: 54.0
+		System.out.println(dict.size() == costs.size());			// true
+	}
+	
+	private static void testBulkOperations() {
+		Dictionary<Integer, String> tree = new BinaryTreeDictionary<>();
+		Dictionary<Integer, String> array = new SortedArrayDictionary<>();
+		Dictionary<Integer, String> other = new HashDictionary<>();
+		for (int i = 0; i < 100; i++) {
+			tree.insert(2 * i, "alt");
+			array.insert(2 * i, "alt");
+			other.insert(3 * i, "neu");
+		}
+		tree.putAll(other);
+		array.putAll(other);
+		System.out.println(tree.size() + " " + array.size());			// 166 166
+		System.out.println(tree.search(6) + " " + array.search(4));	// neu alt
+		List<Integer> keys = new ArrayList<>();
+		for (int i = 0; i < 300; i += 4) {
+			keys.add(i);
+		}
+		System.out.println(tree.removeAll(keys) + " " + array.removeAll(keys));	// 58 58
+		System.out.println(tree.removeIf((k, v) -> v.equals("neu")) + " " + array.removeIf((k, v) -> v.equals("neu")));	// 75 75
+		System.out.println(tree.size() + " " + array.size());			// 33 33
+	}
+	
 	private static void testBinaryTreeDictionary() {
 		Dictionary<String, String> dict = new BinaryTreeDictionary<>();
 		testDict(dict);
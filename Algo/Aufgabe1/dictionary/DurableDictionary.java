@@ -0,0 +1,500 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Durable dictionary: an in-memory dictionary whose changes are written to a write-ahead log.
+ * <p>
+ * The dictionary lives in a directory with two files: snapshot.dict (a snapshot in the format of
+ * MappedDictionary) and wal.log (the changes since the snapshot). open loads the snapshot into
+ * the given in-memory dictionary and replays the log; a record with a torn tail or a wrong checksum
+ * ends the log (it was not acknowledged to any caller) and is cut off.
+ * <p>
+ * insert and remove change the in-memory dictionary and append a record to a buffer.
+ * With Durability.SYNC the call returns after the record has been forced to disk.
+ * Group commit: the first waiting thread writes the buffer with the records of all threads
+ * and forces the log once, the other threads wait for it, so concurrent writers share one fsync.
+ * insertAll writes all entries with a single fsync.
+ * With Durability.ASYNC the calls return immediately and a background thread forces the log
+ * every FLUSH_INTERVAL_MILLIS milliseconds; after a crash the changes of this interval may be lost.
+ * <p>
+ * Once the log exceeds the checkpoint size, the dictionary is saved as new snapshot
+ * (written to a temporary file and renamed atomically) and the log is truncated.
+ * <p>
+ * All methods are thread-safe; iterator is not and must not be used while other threads change the dictionary.
+ * <p>
+ * Log record (big endian): int length, int CRC32 of the payload, payload:
+ * byte op, int keyLength, key (UTF-8) and for insert int valueLength, value (UTF-8).
+ */
+public class DurableDictionary implements Dictionary<String, String>, AutoCloseable {
+
+    /**
+     * When insert and remove return.
+     */
+    public enum Durability {SYNC, ASYNC}
+
+    private static final String SNAPSHOT = "snapshot.dict";
+    private static final String LOG = "wal.log";
+    private static final byte INSERT = 1;
+    private static final byte REMOVE = 2;
+    private static final int MAX_RECORD = 1 << 30;
+    private static final long DEF_CHECKPOINT_BYTES = 16 << 20;
+    private static final long FLUSH_INTERVAL_MILLIS = 10;
+
+    private final Dictionary<String, String> dict;
+    private final File dir;
+    private final Durability durability;
+    private final long checkpointBytes;
+    private final FileChannel log;
+    private final Thread flusher;   // nur bei ASYNC
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);  // noch nicht geschriebene Records
+    private ByteBuffer spare = ByteBuffer.allocate(1 << 16);    // null, solange geschrieben wird
+    private final CRC32 crc = new CRC32();
+    private long appended = 0;      // Anzahl angehaengter Records
+    private long durable = 0;       // Anzahl Records, die sicher auf der Platte sind
+    private boolean flushing = false;
+    private long logSize;
+    private long syncs = 0;
+    private IOException failure = null;
+    private boolean closed = false;
+
+    private DurableDictionary(File dir, Dictionary<String, String> dict, Durability durability,
+                              long checkpointBytes, FileChannel log) throws IOException {
+        this.dir = dir;
+        this.dict = dict;
+        this.durability = durability;
+        this.checkpointBytes = checkpointBytes;
+        this.log = log;
+        this.logSize = log.size();
+        if (durability == Durability.ASYNC) {
+            flusher = new Thread(this::flushPeriodically, "DurableDictionary-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Opens the durable dictionary in dir with Durability.SYNC.
+     * @param dir directory; it is created if it does not exist.
+     * @param dict empty in-memory dictionary that holds the entries.
+     * @return the recovered dictionary.
+     * @throws IOException if the snapshot or the log cannot be read.
+     */
+    public static DurableDictionary open(File dir, Dictionary<String, String> dict) throws IOException {
+        return open(dir, dict, Durability.SYNC, DEF_CHECKPOINT_BYTES);
+    }
+
+    /**
+     * Opens the durable dictionary in dir: loads the snapshot and replays the log.
+     * @param dir directory; it is created if it does not exist.
+     * @param dict empty in-memory dictionary that holds the entries.
+     * @param durability SYNC or ASYNC.
+     * @param checkpointBytes log size in bytes after which a checkpoint is taken.
+     * @return the recovered dictionary.
+     * @throws IOException if the snapshot or the log cannot be read.
+     */
+    public static DurableDictionary open(File dir, Dictionary<String, String> dict, Durability durability,
+                                         long checkpointBytes) throws IOException {
+        Files.createDirectories(dir.toPath());
+        File snapshot = new File(dir, SNAPSHOT);
+        if (snapshot.exists()) {
+            dict.insertAll(MappedDictionary.open(snapshot));
+        }
+        File logFile = new File(dir, LOG);
+        long end = logFile.exists() ? replay(logFile, dict) : 0;
+        FileChannel log = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        // unvollstaendigen Rest abschneiden
+        if (log.size() > end) {
+            log.truncate(end);
+            log.force(true);
+        }
+        log.position(end);
+        return new DurableDictionary(dir, dict, durability, checkpointBytes, log);
+    }
+
+    /**
+     * Applies all valid records of the log to dict.
+     * @return the end of the last valid record.
+     */
+    private static long replay(File logFile, Dictionary<String, String> dict) throws IOException {
+        long end = 0;
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            long remaining = logFile.length();
+            while (remaining >= 8) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 5 || length > remaining - 8) {
+                    break;
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                ByteBuffer b = ByteBuffer.wrap(payload);
+                byte op = b.get();
+                String key = string(b);
+                String value = (op == INSERT) ? string(b) : null;
+                // fehlerhafter Record (unbekannte Operation oder Laengen passen nicht): hier endet das Log
+                if (key == null || (op == INSERT && value == null) || (op != INSERT && op != REMOVE)
+                        || b.hasRemaining()) {
+                    break;
+                }
+                if (op == INSERT) {
+                    dict.insert(key, value);
+                } else {
+                    dict.remove(key);
+                }
+                end += 8 + length;
+                remaining -= 8 + length;
+            }
+        } catch (EOFException e) {
+            // Log endet mitten im Record
+        }
+        return end;
+    }
+
+    /**
+     * Reads a length-prefixed string.
+     * @return the string, or null if the length does not fit into the rest of the record.
+     */
+    private static String string(ByteBuffer b) {
+        if (b.remaining() < 4) {
+            return null;
+        }
+        int length = b.getInt();
+        if (length < 0 || length > b.remaining()) {
+            return null;
+        }
+        String s = new String(b.array(), b.position(), length, StandardCharsets.UTF_8);
+        b.position(b.position() + length);
+        return s;
+    }
+
+    /**
+     * Appends a record to the buffer; the lock must be held.
+     * @return the sequence number of the record.
+     */
+    private long append(byte op, String key, String value) {
+        byte[] k = key.getBytes(StandardCharsets.UTF_8);
+        byte[] v = (value != null) ? value.getBytes(StandardCharsets.UTF_8) : null;
+        int length = 5 + k.length + ((v != null) ? 4 + v.length : 0);
+        if (length > MAX_RECORD) {
+            throw new IllegalArgumentException("entry too large");
+        }
+        if (pending.remaining() < 8 + length) {
+            ByteBuffer b = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + 8 + length));
+            pending.flip();
+            pending = b.put(pending);
+        }
+        int start = pending.position();
+        pending.putInt(length).putInt(0).put(op).putInt(k.length).put(k);
+        if (v != null) {
+            pending.putInt(v.length).put(v);
+        }
+        crc.reset();
+        crc.update(pending.array(), start + 8, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+        logSize += 8 + length;
+        return ++appended;
+    }
+
+    /**
+     * Waits until record seq is on disk; the lock must be held.
+     * If no other thread is writing, this thread writes all buffered records (group commit).
+     */
+    private void awaitDurable(long seq) throws IOException {
+        while (durable < seq) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (flushing) {
+                flushed.awaitUninterruptibly();
+            } else {
+                writeBatch();
+            }
+        }
+    }
+
+    /**
+     * Writes and forces the buffered records; the lock is released during I/O.
+     */
+    private void writeBatch() throws IOException {
+        flushing = true;
+        ByteBuffer batch = pending;
+        long upTo = appended;
+        pending = spare;
+        spare = null;
+        lock.unlock();
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                log.write(batch);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            lock.lock();
+            batch.clear();
+            spare = batch;
+            flushing = false;
+            syncs++;
+            if (failure == null) {
+                durable = upTo;
+            }
+            flushed.signalAll();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Waits for the record (SYNC) and takes a checkpoint if the log is too large; the lock must be held.
+     */
+    private void commit(long seq) {
+        try {
+            if (durability == Durability.SYNC) {
+                awaitDurable(seq);
+            }
+            if (logSize > checkpointBytes) {
+                checkpointLocked();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushPeriodically() {
+        while (true) {
+            try {
+                Thread.sleep(FLUSH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                if (!flushing && durable < appended) {
+                    writeBatch();
+                }
+            } catch (IOException e) {
+                return;     // failure wird beim naechsten Aufruf gemeldet
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("dictionary is closed");
+        }
+        if (failure != null) {
+            throw new UncheckedIOException(failure);
+        }
+    }
+
+    @Override
+    public String insert(String key, String value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            checkOpen();
+            long seq = append(INSERT, key, value);   // wirft bei zu grossem Eintrag, bevor dict geaendert ist
+            String oldValue = dict.insert(key, value);
+            commit(seq);
+            return oldValue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts all entries and forces the log only once.
+     * @throws NullPointerException if an entry has a null key or value; nothing is inserted then.
+     */
+    @Override
+    public void insertAll(Iterable<? extends Dictionary.Entry<String, String>> entries) {
+        List<Dictionary.Entry<String, String>> list = new ArrayList<>();
+        for (Dictionary.Entry<String, String> e : entries) {
+            if (e.getKey() == null || e.getValue() == null) {
+                throw new NullPointerException();
+            }
+            list.add(e);
+        }
+        lock.lock();
+        try {
+            checkOpen();
+            long seq = appended;
+            for (Dictionary.Entry<String, String> e : list) {
+                seq = append(INSERT, e.getKey(), e.getValue());
+                dict.insert(e.getKey(), e.getValue());
+            }
+            commit(seq);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String remove(String key) {
+        lock.lock();
+        try {
+            checkOpen();
+            String oldValue = dict.remove(key);
+            if (oldValue != null) {
+                commit(append(REMOVE, key, null));
+            }
+            return oldValue;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String search(String key) {
+        lock.lock();
+        try {
+            return dict.search(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.lock();
+        try {
+            return dict.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<String, String>> iterator() {
+        return dict.iterator();
+    }
+
+    /**
+     * Forces all changes to disk (also with Durability.ASYNC).
+     * @throws IOException if the log cannot be written.
+     */
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            awaitDurable(appended);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saves the dictionary as new snapshot and truncates the log.
+     * @throws IOException if the snapshot or the log cannot be written.
+     */
+    public void checkpoint() throws IOException {
+        lock.lock();
+        try {
+            checkOpen();
+            checkpointLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkpointLocked() throws IOException {
+        // Waehrend awaitDurable koennen andere Threads weitere Records anhaengen
+        while (durable < appended || flushing) {
+            if (flushing) {
+                flushed.awaitUninterruptibly();
+            } else {
+                awaitDurable(appended);
+            }
+        }
+        File tmp = new File(dir, SNAPSHOT + ".tmp");
+        MappedDictionary.save(dict, tmp);
+        try (FileChannel c = FileChannel.open(tmp.toPath(), StandardOpenOption.WRITE)) {
+            c.force(true);
+        }
+        Files.move(tmp.toPath(), new File(dir, SNAPSHOT).toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory();
+        // Ein Absturz vor dem Abschneiden ist harmlos: das Log wird auf den neuen Snapshot erneut angewandt.
+        log.truncate(0);
+        log.position(0);
+        log.force(true);
+        logSize = 0;
+    }
+
+    private void syncDirectory() {
+        try (FileChannel c = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            c.force(true);
+        } catch (IOException e) {
+            // nicht auf allen Plattformen moeglich
+        }
+    }
+
+    /**
+     * Forces the remaining changes to disk and closes the log; the log is closed even if it cannot be written.
+     * @throws IOException if the log cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            try {
+                awaitDurable(appended);
+            } finally {
+                // auch wenn das Log nicht geschrieben werden konnte: Flusher beenden und Datei schliessen
+                closed = true;
+                if (flusher != null) {
+                    flusher.interrupt();
+                }
+                log.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Returns the number of times the log was forced to disk. */
+    public long getSyncCount() {return syncs;}
+
+    /** Returns the current size of the log in bytes. */
+    public long getLogSize() {return logSize;}
+}
@@ -0,0 +1,185 @@
+import java.util.Iterator;
+
+/**
+ * Blocked Bloom filter in front of another dictionary.
+ * <p>
+ * search first asks the filter; if the filter rules out the key, null is returned
+ * without looking into the backing dictionary. Otherwise (key contained or false positive)
+ * the backing dictionary is searched.
+ * <p>
+ * The filter is split into blocks of 512 bits (one cache line), all bits of a key lie
+ * in the same block, so a miss costs one cache-line read in most cases.
+ * The number of bits and hash functions per key is computed from the requested false-positive rate.
+ * <p>
+ * insert sets the bits of the key; if the number of keys exceeds the capacity of the filter,
+ * the filter is rebuilt with twice the capacity. Bits cannot be cleared, so remove only counts
+ * the removed keys; once they make up a quarter of the keys in the filter, the filter is rebuilt
+ * from the backing dictionary on the next search.
+ * For an immutable backing dictionary (e.g. a FrozenDictionary) the filter is built once.
+ * size and iterator refer to the backing dictionary.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class FilteredDictionary<K, V> implements Dictionary<K, V> {
+
+    private static final double DEF_FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1024;
+    private static final int BLOCK_LONGS = 8;           // 8 * 64 Bit = eine Cache-Line
+    private static final double BLOCK_PENALTY = 1.2;    // Blockbildung erhoeht die Fehlerrate, daher mehr Bits
+
+    private final Dictionary<K, V> backing;
+    private final double falsePositiveRate;
+    private final int hashes;           // Anzahl Bits pro Schluessel
+    private final double bitsPerKey;
+    private long[] bits;
+    private int blocks;
+    private int capacity;               // Anzahl Schluessel, fuer die der Filter ausgelegt ist
+    private int added = 0;              // Schluessel im Filter (auch geloeschte)
+    private int removed = 0;            // geloeschte Schluessel, deren Bits noch gesetzt sind
+
+    private long rejected = 0;
+    private long falsePositives = 0;
+    private long rebuilds = 0;
+
+    /**
+     * Creates a filter with a false-positive rate of 1%.
+     * @param backing backing dictionary.
+     */
+    public FilteredDictionary(Dictionary<K, V> backing) {
+        this(backing, DEF_FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Creates a filter over the keys of backing.
+     * @param backing backing dictionary.
+     * @param falsePositiveRate upper bound for the probability that search passes the filter for a key that is not contained.
+     */
+    public FilteredDictionary(Dictionary<K, V> backing, double falsePositiveRate) {
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("false-positive rate must be between 0 and 1");
+        }
+        this.backing = backing;
+        this.falsePositiveRate = falsePositiveRate;
+        double ln2 = Math.log(2);
+        bitsPerKey = -Math.log(falsePositiveRate) / (ln2 * ln2) * BLOCK_PENALTY;
+        hashes = Math.max(1, Math.min(16, (int) Math.round(bitsPerKey / BLOCK_PENALTY * ln2)));
+        rebuild();
+    }
+
+    /**
+     * Allocates a new filter for the current size of the backing dictionary and adds all keys.
+     */
+    private void rebuild() {
+        capacity = Math.max(MIN_CAPACITY, 2 * backing.size());
+        long m = (long) Math.ceil(capacity * bitsPerKey);
+        blocks = (int) Math.max(1, (m + 511) / 512);
+        bits = new long[blocks * BLOCK_LONGS];
+        added = 0;
+        removed = 0;
+        backing.forEach((k, v) -> add(k));
+        rebuilds++;
+    }
+
+    private static long mix(int h) {
+        long z = h * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 32)) * 0xd6e8feb86659fd93L;
+        return z ^ (z >>> 32);
+    }
+
+    private int block(long z) {
+        return (int) (((z >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+    }
+
+    private void add(K key) {
+        long z = mix(key.hashCode());
+        int b = block(z);
+        // Double Hashing innerhalb des Blocks: Bit i = h1 + i * h2 (mod 512)
+        int h1 = (int) z;
+        int h2 = (int) (z >>> 16) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & 511;
+            bits[b + (bit >>> 6)] |= 1L << bit;
+        }
+        added++;
+    }
+
+    private boolean mightContain(K key) {
+        long z = mix(key.hashCode());
+        int b = block(z);
+        int h1 = (int) z;
+        int h2 = (int) (z >>> 16) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & 511;
+            if ((bits[b + (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public V search(K key) {
+        if (removed * 4 > added) {
+            rebuild();
+        }
+        if (!mightContain(key)) {
+            rejected++;
+            return null;
+        }
+        V value = backing.search(key);
+        if (value == null) {
+            falsePositives++;
+        }
+        return value;
+    }
+
+    @Override
+    public V insert(K key, V value) {
+        V oldValue = backing.insert(key, value);
+        if (oldValue == null) {
+            if (added >= capacity) {
+                rebuild();
+            } else {
+                add(key);
+            }
+        }
+        return oldValue;
+    }
+
+    @Override
+    public V remove(K key) {
+        V oldValue = backing.remove(key);
+        if (oldValue != null) {
+            removed++;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public int size() {
+        return backing.size();
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return backing.iterator();
+    }
+
+    @Override
+    public DictionaryStats stats() {
+        return backing.stats();
+    }
+
+    /** Returns the requested false-positive rate. */
+    public double getFalsePositiveRate() {return falsePositiveRate;}
+
+    /** Returns the number of searches answered by the filter alone. */
+    public long getRejected() {return rejected;}
+
+    /** Returns the number of searches that passed the filter for a key that is not contained. */
+    public long getFalsePositives() {return falsePositives;}
+
+    /** Returns the number of times the filter was built. */
+    public long getRebuilds() {return rebuilds;}
+}
@@ -0,0 +1,312 @@
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable dictionary based on a minimal perfect hash function (CHD, compress-hash-displace).
+ * <p>
+ * The n keys are distributed by their hash code into about n/2 buckets.
+ * For each bucket, beginning with the largest, a displacement seed is searched
+ * that maps all keys of the bucket to free slots of a table of exactly n slots.
+ * Buckets with a single key store the slot itself instead of a seed.
+ * Keys and values are stored in two flat arrays at their slot, the only additional
+ * memory is one int seed per bucket.
+ * search computes the bucket and the slot from the hash code
+ * and does one array read and one key comparison.
+ * <p>
+ * Different keys with the same hash code cannot be separated by any seed;
+ * such keys (and the keys of a bucket for which no seed is found) are kept in a small overflow dictionary.
+ * <p>
+ * A FrozenDictionary is created with Dictionary.freeze() or FrozenDictionary.of;
+ * insert and remove throw an UnsupportedOperationException.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class FrozenDictionary<K, V> implements Dictionary<K, V> {
+
+    private static final int BUCKET_SIZE = 2;
+    private static final int MAX_SEED = 1 << 16;
+
+    private final Object[] keys;
+    private final Object[] values;
+    private final int[] seeds;
+    private final HashDictionary<K, V> overflow;   // null, wenn leer
+    private final int size;
+
+    private FrozenDictionary(Object[] keys, Object[] values, int[] seeds, HashDictionary<K, V> overflow, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.seeds = seeds;
+        this.overflow = overflow;
+        this.size = size;
+    }
+
+    /**
+     * Creates an immutable copy of dict.
+     * @param dict dictionary to be copied.
+     * @param <K> Key.
+     * @param <V> Value.
+     * @return an immutable dictionary with the entries of dict.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> FrozenDictionary<K, V> of(Dictionary<K, V> dict) {
+        int n = dict.size();
+        Object[] allKeys = new Object[n];
+        Object[] allValues = new Object[n];
+        int[] hashes = new int[n];
+        int[] count = {0};
+        dict.forEach((k, v) -> {
+            allKeys[count[0]] = k;
+            allValues[count[0]] = v;
+            hashes[count[0]] = k.hashCode();
+            count[0]++;
+        });
+
+        // Schluessel mit gleichem Hashwert kommen in den Ueberlauf
+        HashDictionary<K, V> overflow = new HashDictionary<>();
+        int[] byHash = sortByHash(hashes);
+        boolean[] inOverflow = new boolean[n];
+        for (int i = 1; i < n; i++) {
+            if (hashes[byHash[i]] == hashes[byHash[i - 1]]) {
+                inOverflow[byHash[i - 1]] = true;
+                inOverflow[byHash[i]] = true;
+            }
+        }
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            if (inOverflow[i]) {
+                overflow.insert((K) allKeys[i], (V) allValues[i]);
+            } else {
+                allKeys[m] = allKeys[i];
+                allValues[m] = allValues[i];
+                hashes[m] = hashes[i];
+                m++;
+            }
+        }
+
+        // Schluessel nach Buckets gruppieren (Counting Sort)
+        int r = Math.max(1, (m + BUCKET_SIZE - 1) / BUCKET_SIZE);
+        int[] bucketStart = new int[r + 1];
+        for (int i = 0; i < m; i++) {
+            bucketStart[reduce(mix(hashes[i], 0), r) + 1]++;
+        }
+        int maxBucket = 0;
+        for (int b = 0; b < r; b++) {
+            maxBucket = Math.max(maxBucket, bucketStart[b + 1]);
+            bucketStart[b + 1] += bucketStart[b];
+        }
+        int[] members = new int[m];
+        int[] fill = new int[r];
+        for (int i = 0; i < m; i++) {
+            int b = reduce(mix(hashes[i], 0), r);
+            members[bucketStart[b] + fill[b]++] = i;
+        }
+
+        // Buckets absteigend nach Groesse bearbeiten
+        int[] bySize = new int[maxBucket + 2];
+        for (int b = 0; b < r; b++) {
+            bySize[maxBucket - (bucketStart[b + 1] - bucketStart[b]) + 1]++;
+        }
+        for (int s = 0; s <= maxBucket; s++) {
+            bySize[s + 1] += bySize[s];
+        }
+        int[] order = new int[r];
+        for (int b = 0; b < r; b++) {
+            order[bySize[maxBucket - (bucketStart[b + 1] - bucketStart[b])]++] = b;
+        }
+
+        Object[] keys = new Object[m];
+        Object[] values = new Object[m];
+        int[] seeds = new int[r];
+        int[] slots = new int[maxBucket];
+        int free = 0;
+        for (int b : order) {
+            int from = bucketStart[b];
+            int len = bucketStart[b + 1] - from;
+            if (len == 0) {
+                break;
+            }
+            if (len == 1) {
+                // Einzelne Schluessel direkt auf freie Plaetze legen (Seed -(Platz + 1))
+                while (keys[free] != null) {
+                    free++;
+                }
+                seeds[b] = -(free + 1);
+                keys[free] = allKeys[members[from]];
+                values[free] = allValues[members[from]];
+                continue;
+            }
+            int seed = 1;
+            while (seed < MAX_SEED && !place(hashes, members, from, len, seed, m, keys, slots)) {
+                seed++;
+            }
+            if (seed == MAX_SEED) {
+                for (int j = from; j < from + len; j++) {
+                    overflow.insert((K) allKeys[members[j]], (V) allValues[members[j]]);
+                }
+                continue;
+            }
+            seeds[b] = seed;
+            for (int j = 0; j < len; j++) {
+                keys[slots[j]] = allKeys[members[from + j]];
+                values[slots[j]] = allValues[members[from + j]];
+            }
+        }
+        return new FrozenDictionary<>(keys, values, seeds, overflow.size() > 0 ? overflow : null, n);
+    }
+
+    /**
+     * Computes the slots of the keys of a bucket for a seed.
+     * @return true if all slots are free and distinct.
+     */
+    private static boolean place(int[] hashes, int[] members, int from, int len, int seed, int m,
+                                 Object[] keys, int[] slots) {
+        for (int j = 0; j < len; j++) {
+            int s = reduce(mix(hashes[members[from + j]], seed), m);
+            if (keys[s] != null) {
+                return false;
+            }
+            for (int i = 0; i < j; i++) {
+                if (slots[i] == s) {
+                    return false;
+                }
+            }
+            slots[j] = s;
+        }
+        return true;
+    }
+
+    private static int[] sortByHash(int[] hashes) {
+        // Hashwert und Index in einem long, damit primitiv sortiert werden kann
+        long[] packed = new long[hashes.length];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = (long) hashes[i] << 32 | i;
+        }
+        Arrays.sort(packed);
+        int[] result = new int[packed.length];
+        for (int i = 0; i < packed.length; i++) {
+            result[i] = (int) packed[i];
+        }
+        return result;
+    }
+
+    private static int mix(int h, int seed) {
+        h ^= seed * 0x9e3779b9;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    // Abbildung auf [0, n) ohne Division
+    private static int reduce(int h, int n) {
+        return (int) (((h & 0xffffffffL) * n) >>> 32);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V search(K key) {
+        int m = keys.length;
+        if (m > 0) {
+            int h = key.hashCode();
+            int seed = seeds[reduce(mix(h, 0), seeds.length)];
+            int s = (seed < 0) ? -seed - 1 : reduce(mix(h, seed), m);
+            if (key.equals(keys[s])) {
+                return (V) values[s];
+            }
+        }
+        return (overflow != null) ? overflow.search(key) : null;
+    }
+
+    /**
+     * Not supported.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public V insert(K key, V value) {
+        throw new UnsupportedOperationException("dictionary is frozen");
+    }
+
+    /**
+     * Not supported.
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public V remove(K key) {
+        throw new UnsupportedOperationException("dictionary is frozen");
+    }
+
+    @Override
+    public FrozenDictionary<K, V> freeze() {
+        return this;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new SlotIterator(null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new SlotIterator(new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept((K) keys[i], (V) values[i]);
+            }
+        }
+        if (overflow != null) {
+            overflow.forEach(action);
+        }
+    }
+
+    private class SlotIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private int pos = advance(0);
+        private final Iterator<Dictionary.Entry<K, V>> rest;
+        private final Dictionary.Entry<K, V> cursor;  // null: neuer Entry pro next()
+
+        SlotIterator(Dictionary.Entry<K, V> cursor) {
+            this.cursor = cursor;
+            this.rest = (overflow != null) ? overflow.iterator() : null;
+        }
+
+        private int advance(int i) {
+            while (i < keys.length && keys[i] == null) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < keys.length || (rest != null && rest.hasNext());
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Dictionary.Entry<K, V> next() {
+            if (pos >= keys.length) {
+                if (rest == null) {
+                    throw new NoSuchElementException();
+                }
+                return rest.next();
+            }
+            K k = (K) keys[pos];
+            V v = (V) values[pos];
+            pos = advance(pos + 1);
+            return (cursor == null) ? new Dictionary.Entry<>(k, v) : cursor.reset(k, v);
+        }
+    }
+}
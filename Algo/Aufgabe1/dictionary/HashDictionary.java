@@ -1,80 +1,149 @@
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.function.BiConsumer;
 
 public class HashDictionary<K, V> implements Dictionary<K, V> {
 
-    private int size;
-    private LinkedList<Entry<K, V>>[] data;
+    // Anzahl Buckets, die pro insert/remove von oldData nach data umgezogen werden.
+    private static final int MIGRATE_STEP = 2;
+
+    // Jeder Bucket ist eine ueber Entry.next verkettete Liste, damit Iteration keine Objekte erzeugt.
+    private Entry<K, V>[] data;
+    private Entry<K, V>[] oldData = null;              // != null, solange umgezogen wird
+    private int migrateIndex = 0;                      // Buckets < migrateIndex in oldData sind umgezogen
     private int count = 0;
+    private final DictionaryStats stats = DictionaryStats.ENABLED ? new DictionaryStats(this) : null;
 
     private static class Entry<K, V> {
-        private K key;
+        private final K key;
         private V value;
+        private final int hash;
+        private Entry<K, V> next;
 
-        private Entry(K k, V v) {
+        private Entry(K k, V v, int h, Entry<K, V> n) {
             key = k;
             value = v;
+            hash = h;
+            next = n;
         }
     }
 
     @SuppressWarnings("unchecked")
     public HashDictionary() {
-        size = 3;
-        data = new LinkedList[size];
-        for (int i = 0; i < data.length; i++) {
-            data[i] = new LinkedList<>();
+        data = new Entry[3];
+        if (DictionaryStats.ENABLED) {
+            stats.setCapacity(data.length);
         }
     }
 
-    private int hash(K key) {
-        int adr = 0;
-        for (int i = 0; i < key.toString().length(); i++) {
-            adr += 31 * adr + key.toString().charAt(i);
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & 0x7fffffff;
+    }
+
+    // Laenge der durchsuchten Liste(n) als Sondierungslaenge
+    private void recordChain(Entry<K, V> list, int h) {
+        stats.recordProbe(length(list) + length(oldBucket(h)));
+    }
+
+    private static int length(Entry<?, ?> entry) {
+        int n = 0;
+        for (; entry != null; entry = entry.next) {
+            n++;
         }
+        return n;
+    }
 
-        if (adr < 0) {
-            adr = -adr;
+    private static <K, V> Entry<K, V> find(Entry<K, V> list, K key, int h) {
+        for (Entry<K, V> entry = list; entry != null; entry = entry.next) {
+            if (entry.hash == h && entry.key.equals(key)) {
+                return entry;
+            }
         }
-        
-        adr = adr % size;
-        return adr;
+        return null;
+    }
+
+    /**
+     * Returns the bucket of oldData that may still contain hash h,
+     * or null if there is no migration in progress or the bucket was already moved.
+     */
+    private Entry<K, V> oldBucket(int h) {
+        if (oldData == null) {
+            return null;
+        }
+        int adr = h % oldData.length;
+        return adr >= migrateIndex ? oldData[adr] : null;
     }
-    
+
     @Override
     public V insert(K key, V value) {
-
-        int hash = hash(key);
-        for (Entry<K, V> entry : data[hash]) {
-            if (entry.key.equals(key)) {
-                V oldValue = entry.value;
-                entry.value = value;
-                return oldValue;
-            }
+        int h = hash(key);
+        if (DictionaryStats.ENABLED) {
+            recordChain(data[h % data.length], h);
+        }
+        Entry<K, V> entry = find(data[h % data.length], key, h);
+        if (entry == null) {
+            entry = find(oldBucket(h), key, h);
         }
-        data[hash].addFirst(new Entry<>(key, value));
+        if (entry != null) {
+            V oldValue = entry.value;
+            entry.value = value;
+            migrate();
+            return oldValue;
+        }
+        int adr = h % data.length;
+        data[adr] = new Entry<>(key, value, h, data[adr]);
+        count++;
+        migrate();
         resize();
         return null;
     }
 
+    @SuppressWarnings("unchecked")
     private void resize() {
-        count++;
-
-        if (count > size){
-            size = nextPrime(size * 2);
+        if (count > data.length) {
+            // Ein laufender Umzug wird vorher abgeschlossen (tritt bei MIGRATE_STEP >= 1 nicht auf).
+            while (oldData != null) {
+                migrate();
+            }
+            oldData = data;
+            migrateIndex = 0;
+            data = new Entry[nextPrime(data.length * 2)];
+            if (DictionaryStats.ENABLED) {
+                stats.resizeStarted(oldData.length, data.length);
+            }
+        }
+    }
 
-            LinkedList<Entry<K, V>>[] newData = new LinkedList[size];
-            for (int i = 0; i < newData.length; i++) {
-                newData[i] = new LinkedList<>();
+    /**
+     * Moves the next MIGRATE_STEP buckets of oldData to data.
+     * The cached hash is reused, so no key is hashed again.
+     */
+    private void migrate() {
+        if (oldData == null) {
+            return;
+        }
+        long start = DictionaryStats.ENABLED ? System.nanoTime() : 0;
+        for (int n = 0; n < MIGRATE_STEP && migrateIndex < oldData.length; n++, migrateIndex++) {
+            Entry<K, V> entry = oldData[migrateIndex];
+            while (entry != null) {
+                Entry<K, V> next = entry.next;
+                int adr = entry.hash % data.length;
+                entry.next = data[adr];
+                data[adr] = entry;
+                entry = next;
             }
-    
-            // Kopieren von Daten in neues Array
-            for (LinkedList<Entry<K, V>> list : data) {
-                for (Entry<K, V> entry : list) {
-                    int hash = hash(entry.key);
-                    newData[hash].add(entry);
-                }
+            oldData[migrateIndex] = null;
+        }
+        if (DictionaryStats.ENABLED) {
+            stats.addResizeTime(System.nanoTime() - start);
+        }
+        if (migrateIndex == oldData.length) {
+            oldData = null;
+            if (DictionaryStats.ENABLED) {
+                stats.resizeFinished();
             }
-            data = newData;
         }
     }
 
@@ -104,24 +173,79 @@ public class HashDictionary<K, V> implements Dictionary<K, V> {
 
     @Override
     public V search(K key) {
-        int hash = hash(key);
-        for (Entry<K, V> entry : data[hash]) {
-            if (entry.key.equals(key)) {
-                return entry.value;
+        int h = hash(key);
+        if (DictionaryStats.ENABLED) {
+            recordChain(data[h % data.length], h);
+        }
+        Entry<K, V> entry = find(data[h % data.length], key, h);
+        if (entry == null) {
+            entry = find(oldBucket(h), key, h);
+        }
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Computes all hash values and loads all buckets first and then scans the buckets.
+     * The loads of the first pass are independent of each other, so the processor
+     * can overlap their cache misses instead of waiting for one bucket after the other.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> searchAll(List<? extends K> keys) {
+        int n = keys.size();
+        int[] hashes = new int[n];
+        Entry<K, V>[] buckets = new Entry[n];
+        int i = 0;
+        for (K key : keys) {
+            int h = hash(key);
+            hashes[i] = h;
+            buckets[i++] = data[h % data.length];
+        }
+        List<V> values = new ArrayList<>(n);
+        i = 0;
+        for (K key : keys) {
+            int h = hashes[i];
+            Entry<K, V> entry = find(buckets[i++], key, h);
+            if (entry == null) {
+                entry = find(oldBucket(h), key, h);
             }
+            values.add(entry != null ? entry.value : null);
         }
-        return null;
+        return values;
     }
 
     @Override
     public V remove(K key) {
-        int hash = hash(key);
-        for (Entry<K, V> entry : data[hash]) {
-            if (entry.key.equals(key)) {
-                V oldValue = entry.value;
-                data[hash].remove(entry);
-                count--;
-                return oldValue;
+        int h = hash(key);
+        if (DictionaryStats.ENABLED) {
+            recordChain(data[h % data.length], h);
+        }
+        Entry<K, V> entry = unlink(data, h % data.length, key, h);
+        if (entry == null && oldBucket(h) != null) {
+            entry = unlink(oldData, h % oldData.length, key, h);
+        }
+        if (entry == null) {
+            return null;
+        }
+        count--;
+        migrate();
+        return entry.value;
+    }
+
+    /**
+     * Removes key from bucket adr of table.
+     * @return the removed entry, or null.
+     */
+    private static <K, V> Entry<K, V> unlink(Entry<K, V>[] table, int adr, K key, int h) {
+        Entry<K, V> prev = null;
+        for (Entry<K, V> entry = table[adr]; entry != null; prev = entry, entry = entry.next) {
+            if (entry.hash == h && entry.key.equals(key)) {
+                if (prev == null) {
+                    table[adr] = entry.next;
+                } else {
+                    prev.next = entry.next;
+                }
+                return entry;
             }
         }
         return null;
@@ -129,40 +253,75 @@ public class HashDictionary<K, V> implements Dictionary<K, V> {
 
     @Override
     public int size() {
-        return size;
+        return count;
+    }
+
+    @Override
+    public DictionaryStats stats() {
+        return stats;
     }
 
     @Override
     public Iterator<Dictionary.Entry<K, V>> iterator() {
-        return new Iterator<Dictionary.Entry<K,V>>() {
-            int i = 0;
-            int j = 0;
-            @Override
-            public boolean hasNext() {
-                while (i < data.length) {
-                    if (j < data[i].size()) {
-                        return true;
-                    } else {
-                        i++;
-                        j = 0;
-                    }
-                }
-                return false;
+        return new HashIterator(null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new HashIterator(new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        forEach(data, 0, action);
+        if (oldData != null) {
+            forEach(oldData, migrateIndex, action);
+        }
+    }
+
+    private static <K, V> void forEach(Entry<K, V>[] table, int from, BiConsumer<? super K, ? super V> action) {
+        for (int i = from; i < table.length; i++) {
+            for (Entry<K, V> entry = table[i]; entry != null; entry = entry.next) {
+                action.accept(entry.key, entry.value);
             }
+        }
+    }
+
+    private class HashIterator implements Iterator<Dictionary.Entry<K, V>> {
+        // Waehrend eines Umzugs werden zusaetzlich die verbliebenen Buckets von oldData besucht.
+        private Entry<K, V>[] table = data;
+        private final Entry<K, V>[] rest = oldData;
+        private int i = 0;
+        private Entry<K, V> entry = null;           // naechster Eintrag
+        private final Dictionary.Entry<K, V> cursor;  // null: neuer Entry pro next()
+
+        HashIterator(Dictionary.Entry<K, V> cursor) {
+            this.cursor = cursor;
+        }
 
-            @Override
-            public Dictionary.Entry<K, V> next() {
-                if (hasNext()) {
-                    Entry<K, V> entry = data[i].get(j);
-                    j++;
-                    if (j == data[i].size()) {
-                        i++;
-                        j = 0;
-                    }
-                    return new Dictionary.Entry<>(entry.key, entry.value);
+        @Override
+        public boolean hasNext() {
+            while (entry == null) {
+                if (i < table.length) {
+                    entry = table[i++];
+                } else if (rest != null && table != rest) {
+                    table = rest;
+                    i = migrateIndex;
+                } else {
+                    return false;
                 }
-                return null;
             }
-        };
+            return true;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (hasNext()) {
+                Entry<K, V> e = entry;
+                entry = entry.next;
+                return (cursor == null) ? new Dictionary.Entry<>(e.key, e.value) : cursor.reset(e.key, e.value);
+            }
+            return null;
+        }
     }
 }
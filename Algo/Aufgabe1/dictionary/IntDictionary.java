@@ -0,0 +1,244 @@
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Dictionary with primitive int keys as hash table with open addressing.
+ * <p>
+ * Has the same semantics as Dictionary&lt;Integer, V&gt;, but keys are never boxed:
+ * insert, search, remove, forEach and the cursor work on int keys and allocate nothing
+ * (apart from resizing the table).
+ * <p>
+ * Keys and values are kept in two flat arrays; a slot is free if its value is null,
+ * so null values are not allowed. Collisions are resolved by linear probing,
+ * the address is computed by Fibonacci hashing, so that consecutive keys are spread over the table.
+ * remove shifts the following entries of the probe sequence back instead of leaving a tombstone.
+ *
+ * @param <V> Value.
+ */
+public class IntDictionary<V> {
+
+    private static final int DEF_CAPACITY = 16;
+
+    /**
+     * Action for forEach.
+     * @param <V> Value.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    // Tabelle wird verdoppelt, sobald mehr als 3/4 der Plaetze belegt sind.
+    private int[] keys;
+    private Object[] values;    // null: freier Platz
+    private int mask;
+    private int shift;
+    private int size = 0;
+
+    public IntDictionary() {
+        this(DEF_CAPACITY);
+    }
+
+    /**
+     * Creates an empty dictionary that can hold the given number of entries without resizing.
+     * @param expectedSize expected number of entries.
+     */
+    public IntDictionary(int expectedSize) {
+        int capacity = DEF_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+    }
+
+    private int home(int key) {
+        return (key * 0x9e3779b9) >>> shift;
+    }
+
+    private int searchSlot(int key) {
+        int i = home(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Associates value with key.
+     * @param key key.
+     * @param value value (not null).
+     * @return the old value of key, or null if key was not contained.
+     * @throws NullPointerException if value is null.
+     */
+    @SuppressWarnings("unchecked")
+    public V insert(int key, V value) {
+        Objects.requireNonNull(value);
+        int i = home(key);
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                V oldValue = (V) values[i];
+                values[i] = value;
+                return oldValue;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            resize();
+        }
+        return null;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] != null) {
+                int i = home(oldKeys[j]);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    /**
+     * Returns the value of key.
+     * @param key key.
+     * @return the value of key, or null if key is not contained.
+     */
+    @SuppressWarnings("unchecked")
+    public V search(int key) {
+        int i = searchSlot(key);
+        return (i != -1) ? (V) values[i] : null;
+    }
+
+    /**
+     * Returns true if key is contained.
+     * @param key key.
+     * @return true if key is contained.
+     */
+    public boolean contains(int key) {
+        return searchSlot(key) != -1;
+    }
+
+    /**
+     * Removes key.
+     * @param key key.
+     * @return the old value of key, or null if key was not contained.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int i = searchSlot(key);
+        if (i == -1) {
+            return null;
+        }
+        V oldValue = (V) values[i];
+        // Nachfolgende Eintraege, deren Sondierung die Luecke passiert, nachruecken lassen
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (values[j] == null) {
+                break;
+            }
+            int h = home(keys[j]);
+            if (((j - h) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        values[i] = null;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls action for every entry.
+     * @param action action.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a cursor over all entries. The dictionary must not be changed while the cursor is used.
+     * @return a cursor positioned before the first entry.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Cursor over the entries of an IntDictionary:
+     * <pre>
+     * for (IntDictionary&lt;V&gt;.Cursor c = dict.cursor(); c.next(); ) {
+     *     ... c.key() ... c.value() ...
+     * }
+     * </pre>
+     */
+    public class Cursor {
+        private int pos = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next entry.
+         * @return false if there is no next entry.
+         */
+        public boolean next() {
+            do {
+                pos++;
+            } while (pos < keys.length && values[pos] == null);
+            return pos < keys.length;
+        }
+
+        /** Returns the key of the current entry. */
+        public int key() {
+            check();
+            return keys[pos];
+        }
+
+        /** Returns the value of the current entry. */
+        @SuppressWarnings("unchecked")
+        public V value() {
+            check();
+            return (V) values[pos];
+        }
+
+        private void check() {
+            if (pos < 0 || pos >= keys.length) {
+                throw new NoSuchElementException();
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+import java.util.NoSuchElementException;
+
+/**
+ * Dictionary with primitive int keys and double values as hash table with open addressing.
+ * <p>
+ * Works like IntDictionary, but values are primitive too, so neither keys nor values are boxed.
+ * Since there is no null, search, insert and remove return NaN for a key that is not contained;
+ * use contains if NaN may be stored as value.
+ * A separate array marks the occupied slots.
+ */
+public class IntDoubleDictionary {
+
+    private static final int DEF_CAPACITY = 16;
+
+    /**
+     * Action for forEach.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int key, double value);
+    }
+
+    // Tabelle wird verdoppelt, sobald mehr als 3/4 der Plaetze belegt sind.
+    private int[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int mask;
+    private int shift;
+    private int size = 0;
+
+    public IntDoubleDictionary() {
+        this(DEF_CAPACITY);
+    }
+
+    /**
+     * Creates an empty dictionary that can hold the given number of entries without resizing.
+     * @param expectedSize expected number of entries.
+     */
+    public IntDoubleDictionary(int expectedSize) {
+        int capacity = DEF_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new double[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(mask);
+    }
+
+    private int home(int key) {
+        return (key * 0x9e3779b9) >>> shift;
+    }
+
+    private int searchSlot(int key) {
+        int i = home(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Associates value with key.
+     * @param key key.
+     * @param value value.
+     * @return the old value of key, or NaN if key was not contained.
+     */
+    public double insert(int key, double value) {
+        int i = home(key);
+        while (used[i]) {
+            if (keys[i] == key) {
+                double oldValue = values[i];
+                values[i] = value;
+                return oldValue;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        used[i] = true;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            resize();
+        }
+        return Double.NaN;
+    }
+
+    private void resize() {
+        int[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldKeys.length * 2);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldUsed[j]) {
+                int i = home(oldKeys[j]);
+                while (used[i]) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = oldValues[j];
+                used[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the value of key.
+     * @param key key.
+     * @return the value of key, or NaN if key is not contained.
+     */
+    public double search(int key) {
+        int i = searchSlot(key);
+        return (i != -1) ? values[i] : Double.NaN;
+    }
+
+    /**
+     * Returns true if key is contained.
+     * @param key key.
+     * @return true if key is contained.
+     */
+    public boolean contains(int key) {
+        return searchSlot(key) != -1;
+    }
+
+    /**
+     * Removes key.
+     * @param key key.
+     * @return the old value of key, or NaN if key was not contained.
+     */
+    public double remove(int key) {
+        int i = searchSlot(key);
+        if (i == -1) {
+            return Double.NaN;
+        }
+        double oldValue = values[i];
+        // Nachfolgende Eintraege, deren Sondierung die Luecke passiert, nachruecken lassen
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) {
+                break;
+            }
+            int h = home(keys[j]);
+            if (((j - h) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        used[i] = false;
+        size--;
+        return oldValue;
+    }
+
+    /**
+     * Returns the number of entries.
+     * @return the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calls action for every entry.
+     * @param action action.
+     */
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns a cursor over all entries. The dictionary must not be changed while the cursor is used.
+     * @return a cursor positioned before the first entry.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Cursor over the entries of an IntDoubleDictionary:
+     * <pre>
+     * for (IntDoubleDictionary.Cursor c = dict.cursor(); c.next(); ) {
+     *     ... c.key() ... c.value() ...
+     * }
+     * </pre>
+     */
+    public class Cursor {
+        private int pos = -1;
+
+        private Cursor() {
+        }
+
+        /**
+         * Moves to the next entry.
+         * @return false if there is no next entry.
+         */
+        public boolean next() {
+            do {
+                pos++;
+            } while (pos < keys.length && !used[pos]);
+            return pos < keys.length;
+        }
+
+        /** Returns the key of the current entry. */
+        public int key() {
+            check();
+            return keys[pos];
+        }
+
+        /** Returns the value of the current entry. */
+        public double value() {
+            check();
+            return values[pos];
+        }
+
+        private void check() {
+            if (pos < 0 || pos >= keys.length) {
+                throw new NoSuchElementException();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read-only dictionary backed by a memory-mapped binary snapshot file.
+ * <p>
+ * A snapshot is written with save and reopened with open.
+ * Opening only maps the file, no entries are read or created,
+ * so the start-up time does not depend on the size of the dictionary.
+ * search encodes the key as UTF-8 and does a binary search directly on the mapped bytes;
+ * only the value of a hit is decoded into a String.
+ * <p>
+ * File format (big endian):
+ * <pre>
+ * int magic, int version, int n
+ * n times: int keyOffset, int valueOffset   (sorted by key, offsets relative to the heap)
+ * heap:    int length, UTF-8 bytes           (one record per key and value)
+ * </pre>
+ * Keys are sorted by their UTF-8 bytes, which is the order of the iterator.
+ * Snapshot files are limited to 2 GB.
+ */
+public class MappedDictionary implements Dictionary<String, String> {
+
+    private static final int MAGIC = 0x44494354;  // "DICT"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int INDEX_ENTRY_SIZE = 8;
+
+    private final ByteBuffer buf;
+    private final int n;
+    private final int heap;
+
+    private MappedDictionary(ByteBuffer buf) throws IOException {
+        if (buf.limit() < HEADER_SIZE || buf.getInt(0) != MAGIC) {
+            throw new IOException("no dictionary snapshot");
+        }
+        if (buf.getInt(4) != VERSION) {
+            throw new IOException("unsupported snapshot version " + buf.getInt(4));
+        }
+        this.buf = buf;
+        this.n = buf.getInt(8);
+        this.heap = HEADER_SIZE + n * INDEX_ENTRY_SIZE;
+    }
+
+    /**
+     * Writes all entries of dict to file.
+     * @param dict dictionary to be saved.
+     * @param file snapshot file; an existing file is overwritten.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save(Dictionary<String, String> dict, File file) throws IOException {
+        byte[][] keys = new byte[dict.size()][];
+        byte[][] values = new byte[dict.size()][];
+        Integer[] order = new Integer[dict.size()];
+        int k = 0;
+        for (Dictionary.Entry<String, String> e : dict) {
+            keys[k] = e.getKey().getBytes(StandardCharsets.UTF_8);
+            values[k] = e.getValue().getBytes(StandardCharsets.UTF_8);
+            order[k] = k;
+            k++;
+        }
+        Arrays.sort(order, (i, j) -> Arrays.compareUnsigned(keys[i], keys[j]));
+
+        long heapSize = 0;
+        for (int i = 0; i < k; i++) {
+            heapSize += 8 + keys[i].length + values[i].length;
+        }
+        if (HEADER_SIZE + (long) k * INDEX_ENTRY_SIZE + heapSize > Integer.MAX_VALUE) {
+            throw new IOException("dictionary too large for a snapshot");
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(k);
+            long offset = 0;
+            for (int i : order) {
+                out.writeInt((int) offset);
+                offset += 4 + keys[i].length;
+                out.writeInt((int) offset);
+                offset += 4 + values[i].length;
+            }
+            for (int i : order) {
+                out.writeInt(keys[i].length);
+                out.write(keys[i]);
+                out.writeInt(values[i].length);
+                out.write(values[i]);
+            }
+        }
+    }
+
+    /**
+     * Maps a snapshot file written by save.
+     * @param file snapshot file.
+     * @return read-only dictionary backed by the mapped file.
+     * @throws IOException if the file cannot be read or is no snapshot.
+     */
+    public static MappedDictionary open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Die Abbildung bleibt auch nach dem Schliessen des Kanals gueltig.
+            return new MappedDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    private int keyOffset(int i) {
+        return heap + buf.getInt(HEADER_SIZE + i * INDEX_ENTRY_SIZE);
+    }
+
+    private int valueOffset(int i) {
+        return heap + buf.getInt(HEADER_SIZE + i * INDEX_ENTRY_SIZE + 4);
+    }
+
+    private String string(int offset) {
+        byte[] b = new byte[buf.getInt(offset)];
+        buf.get(offset + 4, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compares key with the UTF-8 bytes of the record at offset (unsigned, lexicographic).
+     */
+    private int compare(byte[] key, int offset) {
+        int len = buf.getInt(offset);
+        int m = Math.min(key.length, len);
+        for (int i = 0; i < m; i++) {
+            int c = (key[i] & 0xff) - (buf.get(offset + 4 + i) & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return key.length - len;
+    }
+
+    private int searchKey(String key) {
+        byte[] b = key.getBytes(StandardCharsets.UTF_8);
+        int li = 0;
+        int re = n - 1;
+        while (li <= re) {
+            int m = (li + re) >>> 1;
+            int c = compare(b, keyOffset(m));
+            if (c < 0)
+                re = m - 1;
+            else if (c > 0)
+                li = m + 1;
+            else
+                return m;
+        }
+        return -1;
+    }
+
+    @Override
+    public String search(String key) {
+        int i = searchKey(key);
+        return (i != -1) ? string(valueOffset(i)) : null;
+    }
+
+    /**
+     * Not supported, a mapped snapshot is read-only.
+     */
+    @Override
+    public String insert(String key, String value) {
+        throw new UnsupportedOperationException("snapshot is read-only");
+    }
+
+    /**
+     * Not supported, a mapped snapshot is read-only.
+     */
+    @Override
+    public String remove(String key) {
+        throw new UnsupportedOperationException("snapshot is read-only");
+    }
+
+    @Override
+    public int size() {
+        return n;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<String, String>> iterator() {
+        return new Iterator<Dictionary.Entry<String, String>>() {
+            private int pos = 0;
+
+            @Override
+            public boolean hasNext() {
+                return pos < n;
+            }
+
+            @Override
+            public Dictionary.Entry<String, String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Dictionary.Entry<String, String> e = new Dictionary.Entry<>(string(keyOffset(pos)), string(valueOffset(pos)));
+                pos++;
+                return e;
+            }
+        };
+    }
+}
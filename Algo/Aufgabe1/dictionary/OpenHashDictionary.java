@@ -0,0 +1,251 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Implementation of the Dictionary interface as hash table with open addressing.
+ * <p>
+ * Keys, values and hash codes are kept in flat parallel arrays,
+ * collisions are resolved by linear probing.
+ * The capacity is always a power of two, so the address is computed by masking.
+ * Removed slots are marked with a tombstone and reused by later inserts.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class OpenHashDictionary<K, V> implements Dictionary<K, V> {
+
+    private static final int DEF_CAPACITY = 16;
+    private static final Object TOMBSTONE = new Object();
+
+    // Tabelle wird vergroessert, sobald belegte Plaetze + Tombstones
+    // mehr als 3/4 der Kapazitaet ausmachen.
+    private Object[] keys;
+    private Object[] values;
+    private int[] hashes;
+    private int mask;
+    private int size = 0;
+    private int tombstones = 0;
+    private final DictionaryStats stats = DictionaryStats.ENABLED ? new DictionaryStats(this) : null;
+
+    public OpenHashDictionary() {
+        this(DEF_CAPACITY);
+    }
+
+    /**
+     * Creates an empty dictionary that can hold the given number of entries without resizing.
+     * @param expectedSize expected number of entries.
+     */
+    public OpenHashDictionary(int expectedSize) {
+        int capacity = DEF_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new Object[capacity];
+        values = new Object[capacity];
+        hashes = new int[capacity];
+        mask = capacity - 1;
+        if (DictionaryStats.ENABLED) {
+            stats.setCapacity(capacity);
+        }
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the slot of key or -1 if key is not contained.
+     */
+    private int searchSlot(Object key, int h) {
+        int i = h & mask;
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k != TOMBSTONE && hashes[i] == h && k.equals(key)) {
+                if (DictionaryStats.ENABLED) {
+                    stats.recordProbe(((i - h) & mask) + 1);
+                }
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        if (DictionaryStats.ENABLED) {
+            stats.recordProbe(((i - h) & mask) + 1);
+        }
+        return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V insert(K key, V value) {
+        int h = hash(key);
+        int i = h & mask;
+        int free = -1;
+        Object k;
+        while ((k = keys[i]) != null) {
+            if (k == TOMBSTONE) {
+                if (free == -1) {
+                    free = i;
+                }
+            } else if (hashes[i] == h && k.equals(key)) {
+                if (DictionaryStats.ENABLED) {
+                    stats.recordProbe(((i - h) & mask) + 1);
+                }
+                V oldValue = (V) values[i];
+                values[i] = value;
+                return oldValue;
+            }
+            i = (i + 1) & mask;
+        }
+        if (DictionaryStats.ENABLED) {
+            stats.recordProbe(((i - h) & mask) + 1);
+        }
+
+        // key does not exist
+        if (free != -1) {
+            i = free;
+            tombstones--;
+        }
+        keys[i] = key;
+        values[i] = value;
+        hashes[i] = h;
+        size++;
+        if ((size + tombstones) * 4 > keys.length * 3) {
+            resize();
+        }
+        return null;
+    }
+
+    private void resize() {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+
+        // Bei vielen Tombstones reicht ein Rehash in gleicher Groesse.
+        int capacity = (size * 2 > oldKeys.length * 3 / 4) ? oldKeys.length * 2 : oldKeys.length;
+        long start = 0;
+        if (DictionaryStats.ENABLED) {
+            stats.resizeStarted(oldKeys.length, capacity);
+            start = System.nanoTime();
+        }
+        allocate(capacity);
+        tombstones = 0;
+
+        for (int j = 0; j < oldKeys.length; j++) {
+            Object k = oldKeys[j];
+            if (k != null && k != TOMBSTONE) {
+                int i = oldHashes[j] & mask;
+                while (keys[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = k;
+                values[i] = oldValues[j];
+                hashes[i] = oldHashes[j];
+            }
+        }
+        if (DictionaryStats.ENABLED) {
+            stats.addResizeTime(System.nanoTime() - start);
+            stats.resizeFinished();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V search(K key) {
+        int i = searchSlot(key, hash(key));
+        if (i != -1) {
+            return (V) values[i];
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int i = searchSlot(key, hash(key));
+        if (i == -1) {
+            return null;
+        }
+        V oldValue = (V) values[i];
+        values[i] = null;
+        hashes[i] = 0;
+        size--;
+        // Folgt ein freier Platz, wird kein Tombstone benoetigt.
+        if (keys[(i + 1) & mask] == null) {
+            keys[i] = null;
+        } else {
+            keys[i] = TOMBSTONE;
+            tombstones++;
+        }
+        return oldValue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public DictionaryStats stats() {
+        return stats;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new SlotIterator(null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new SlotIterator(new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < keys.length; i++) {
+            Object k = keys[i];
+            if (k != null && k != TOMBSTONE) {
+                action.accept((K) k, (V) values[i]);
+            }
+        }
+    }
+
+    private class SlotIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private int pos = advance(0);
+        private final Dictionary.Entry<K, V> cursor;  // null: neuer Entry pro next()
+
+        SlotIterator(Dictionary.Entry<K, V> cursor) {
+            this.cursor = cursor;
+        }
+
+        private int advance(int i) {
+            while (i < keys.length && (keys[i] == null || keys[i] == TOMBSTONE)) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < keys.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K k = (K) keys[pos];
+            V v = (V) values[pos];
+            pos = advance(pos + 1);
+            return (cursor == null) ? new Dictionary.Entry<>(k, v) : cursor.reset(k, v);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+import java.util.Iterator;
+
+/**
+ * Dictionary whose entries are ordered by their keys.
+ * <p>
+ * In addition to point lookups an ordered dictionary supports navigation
+ * to neighbouring keys and iteration over a key range.
+ * The iterator of an ordered dictionary returns the entries in ascending key order.
+ * @param <K> the type of keys maintained by this map.
+ * @param <V> the type of mapped values.
+ */
+public interface OrderedDictionary<K, V> extends Dictionary<K, V> {
+	/**
+	 * Returns the smallest key in this dictionary, or null if this dictionary is empty.
+	 * @return the smallest key, or null if this dictionary is empty.
+	 */
+	K firstKey();
+
+	/**
+	 * Returns the largest key in this dictionary, or null if this dictionary is empty.
+	 * @return the largest key, or null if this dictionary is empty.
+	 */
+	K lastKey();
+
+	/**
+	 * Returns the greatest key less than or equal to the given key, or null if there is no such key.
+	 * @param key the key to be compared.
+	 * @return the greatest key less than or equal to key, or null if there is no such key.
+	 */
+	K floor(K key);
+
+	/**
+	 * Returns the least key greater than or equal to the given key, or null if there is no such key.
+	 * @param key the key to be compared.
+	 * @return the least key greater than or equal to key, or null if there is no such key.
+	 */
+	K ceiling(K key);
+
+	/**
+	 * Returns the least key strictly greater than the given key, or null if there is no such key.
+	 * @param key the key to be compared.
+	 * @return the least key greater than key, or null if there is no such key.
+	 */
+	K higher(K key);
+
+	/**
+	 * Returns the greatest key strictly less than the given key, or null if there is no such key.
+	 * @param key the key to be compared.
+	 * @return the greatest key less than key, or null if there is no such key.
+	 */
+	K lower(K key);
+
+	/**
+	 * Returns an iterator over the entries whose keys range from fromKey, inclusive,
+	 * to toKey, exclusive, in ascending key order. A null bound means that the range is unbounded on that side.
+	 * @param fromKey low endpoint (inclusive) of the keys, or null.
+	 * @param toKey high endpoint (exclusive) of the keys, or null.
+	 * @return an iterator over the entries in the given key range.
+	 */
+	Iterator<Entry<K, V>> range(K fromKey, K toKey);
+}
@@ -0,0 +1,425 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Implementation of the Dictionary interface as persistent AVL tree.
+ * <p>
+ * Nodes are immutable. insert and remove copy only the nodes on the path from the root
+ * to the changed node (and the nodes of a rotation) and publish the new root
+ * together with the size in a single volatile write.
+ * Writers are serialized; readers never lock: search, the navigation methods and iterator
+ * read the current version of the tree, which is never changed afterwards.
+ * <p>
+ * snapshot() returns the current version as read-only dictionary in O(1),
+ * so a consistent view can be taken per request and iterated while the writer keeps updating.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class PersistentTreeDictionary<K extends Comparable<K>, V> implements OrderedDictionary<K, V> {
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left;
+        final Node<K, V> right;
+        final int height;
+
+        Node(K k, V v, Node<K, V> l, Node<K, V> r) {
+            key = k;
+            value = v;
+            left = l;
+            right = r;
+            height = Math.max(getHigh(l), getHigh(r)) + 1;
+        }
+    }
+
+    private volatile Snapshot<K, V> current = new Snapshot<>(null, 0);
+    private V oldValue;     // nur vom Schreiber benutzt
+
+    /**
+     * Returns the current version of this dictionary.
+     * The snapshot is not affected by later changes of this dictionary.
+     * @return a read-only view of the current entries.
+     */
+    public Snapshot<K, V> snapshot() {
+        return current;
+    }
+
+    @Override
+    public synchronized V insert(K key, V value) {
+        Snapshot<K, V> s = current;
+        Node<K, V> root = insertR(key, value, s.root);
+        current = new Snapshot<>(root, (oldValue == null) ? s.size + 1 : s.size);
+        return oldValue;
+    }
+
+    private Node<K, V> insertR(K key, V value, Node<K, V> p) {
+        if (p == null) {
+            oldValue = null;
+            return new Node<>(key, value, null, null);
+        }
+        int c = key.compareTo(p.key);
+        if (c < 0) {
+            return balance(p.key, p.value, insertR(key, value, p.left), p.right);
+        } else if (c > 0) {
+            return balance(p.key, p.value, p.left, insertR(key, value, p.right));
+        } else {
+            oldValue = p.value;
+            return new Node<>(p.key, value, p.left, p.right);
+        }
+    }
+
+    @Override
+    public synchronized V remove(K key) {
+        Snapshot<K, V> s = current;
+        Node<K, V> root = removeR(key, s.root);
+        if (oldValue != null) {
+            current = new Snapshot<>(root, s.size - 1);
+        }
+        return oldValue;
+    }
+
+    private Node<K, V> removeR(K key, Node<K, V> p) {
+        if (p == null) {
+            oldValue = null;
+            return null;
+        }
+        int c = key.compareTo(p.key);
+        if (c < 0) {
+            Node<K, V> l = removeR(key, p.left);
+            return (l == p.left) ? p : balance(p.key, p.value, l, p.right);
+        } else if (c > 0) {
+            Node<K, V> r = removeR(key, p.right);
+            return (r == p.right) ? p : balance(p.key, p.value, p.left, r);
+        }
+        oldValue = p.value;
+        if (p.left == null || p.right == null) {
+            return (p.left != null) ? p.left : p.right;
+        }
+        // p hat zwei Kinder: durch das Minimum des rechten Teilbaums ersetzen
+        Node<K, V> min = leftMostDescendant(p.right);
+        return balance(min.key, min.value, p.left, removeMinR(p.right));
+    }
+
+    private Node<K, V> removeMinR(Node<K, V> p) {
+        if (p.left == null) {
+            return p.right;
+        }
+        return balance(p.key, p.value, removeMinR(p.left), p.right);
+    }
+
+    /**
+     * Creates a node with the given children and restores the AVL condition.
+     */
+    private static <K, V> Node<K, V> balance(K k, V v, Node<K, V> l, Node<K, V> r) {
+        int b = getHigh(r) - getHigh(l);
+        if (b == 2) {
+            if (getHigh(r.right) < getHigh(r.left)) {
+                r = rotateRight(r.key, r.value, r.left, r.right);
+            }
+            return rotateLeft(k, v, l, r);
+        } else if (b == -2) {
+            if (getHigh(l.right) > getHigh(l.left)) {
+                l = rotateLeft(l.key, l.value, l.left, l.right);
+            }
+            return rotateRight(k, v, l, r);
+        }
+        return new Node<>(k, v, l, r);
+    }
+
+    private static <K, V> Node<K, V> rotateRight(K k, V v, Node<K, V> l, Node<K, V> r) {
+        return new Node<>(l.key, l.value, l.left, new Node<>(k, v, l.right, r));
+    }
+
+    private static <K, V> Node<K, V> rotateLeft(K k, V v, Node<K, V> l, Node<K, V> r) {
+        return new Node<>(r.key, r.value, new Node<>(k, v, l, r.left), r.right);
+    }
+
+    private static int getHigh(Node<?, ?> p) {
+        return (p == null) ? -1 : p.height;
+    }
+
+    private static <K, V> Node<K, V> leftMostDescendant(Node<K, V> p) {
+        while (p.left != null) {
+            p = p.left;
+        }
+        return p;
+    }
+
+    @Override
+    public V search(K key) {
+        return current.search(key);
+    }
+
+    @Override
+    public int size() {
+        return current.size;
+    }
+
+    @Override
+    public K firstKey() {
+        return current.firstKey();
+    }
+
+    @Override
+    public K lastKey() {
+        return current.lastKey();
+    }
+
+    @Override
+    public K floor(K key) {
+        return current.floor(key);
+    }
+
+    @Override
+    public K ceiling(K key) {
+        return current.ceiling(key);
+    }
+
+    @Override
+    public K higher(K key) {
+        return current.higher(key);
+    }
+
+    @Override
+    public K lower(K key) {
+        return current.lower(key);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> range(K fromKey, K toKey) {
+        return current.range(fromKey, toKey);
+    }
+
+    /**
+     * Returns an iterator over the current version; later changes are not visible to the iterator.
+     */
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return current.iterator();
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return current.cursor();
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        current.forEach(action);
+    }
+
+    /**
+     * Immutable version of a PersistentTreeDictionary.
+     * insert and remove throw an UnsupportedOperationException.
+     *
+     * @param <K> Key.
+     * @param <V> Value.
+     */
+    public static final class Snapshot<K extends Comparable<K>, V> implements OrderedDictionary<K, V> {
+        private final Node<K, V> root;
+        private final int size;
+
+        private Snapshot(Node<K, V> root, int size) {
+            this.root = root;
+            this.size = size;
+        }
+
+        @Override
+        public V search(K key) {
+            Node<K, V> p = root;
+            while (p != null) {
+                int c = key.compareTo(p.key);
+                if (c == 0) {
+                    return p.value;
+                }
+                p = (c < 0) ? p.left : p.right;
+            }
+            return null;
+        }
+
+        /**
+         * Not supported.
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public V insert(K key, V value) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        /**
+         * Not supported.
+         * @throws UnsupportedOperationException always.
+         */
+        @Override
+        public V remove(K key) {
+            throw new UnsupportedOperationException("snapshot is read-only");
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        private static <K> K keyOf(Node<K, ?> p) {
+            return (p == null) ? null : p.key;
+        }
+
+        @Override
+        public K firstKey() {
+            return (root == null) ? null : leftMostDescendant(root).key;
+        }
+
+        @Override
+        public K lastKey() {
+            Node<K, V> p = root;
+            if (p != null) {
+                while (p.right != null) {
+                    p = p.right;
+                }
+            }
+            return keyOf(p);
+        }
+
+        @Override
+        public K floor(K key) {
+            return keyOf(floorNode(key, true));
+        }
+
+        @Override
+        public K ceiling(K key) {
+            return keyOf(ceilingNode(key, true));
+        }
+
+        @Override
+        public K higher(K key) {
+            return keyOf(ceilingNode(key, false));
+        }
+
+        @Override
+        public K lower(K key) {
+            return keyOf(floorNode(key, false));
+        }
+
+        /**
+         * Returns the node with the least key >= key (inclusive) or > key (not inclusive).
+         */
+        private Node<K, V> ceilingNode(K key, boolean inclusive) {
+            Node<K, V> p = root;
+            Node<K, V> candidate = null;
+            while (p != null) {
+                int c = key.compareTo(p.key);
+                if (c < 0 || (c == 0 && inclusive)) {
+                    candidate = p;
+                    if (c == 0) {
+                        break;
+                    }
+                    p = p.left;
+                } else {
+                    p = p.right;
+                }
+            }
+            return candidate;
+        }
+
+        /**
+         * Returns the node with the greatest key <= key (inclusive) or < key (not inclusive).
+         */
+        private Node<K, V> floorNode(K key, boolean inclusive) {
+            Node<K, V> p = root;
+            Node<K, V> candidate = null;
+            while (p != null) {
+                int c = key.compareTo(p.key);
+                if (c > 0 || (c == 0 && inclusive)) {
+                    candidate = p;
+                    if (c == 0) {
+                        break;
+                    }
+                    p = p.right;
+                } else {
+                    p = p.left;
+                }
+            }
+            return candidate;
+        }
+
+        @Override
+        public Iterator<Dictionary.Entry<K, V>> range(K fromKey, K toKey) {
+            return new TreeIterator<>(root, fromKey, toKey, null);
+        }
+
+        @Override
+        public Iterator<Dictionary.Entry<K, V>> iterator() {
+            return new TreeIterator<>(root, null, null, null);
+        }
+
+        @Override
+        public Iterator<Dictionary.Entry<K, V>> cursor() {
+            return new TreeIterator<>(root, null, null, new Dictionary.Entry<>(null, null));
+        }
+
+        @Override
+        public void forEach(BiConsumer<? super K, ? super V> action) {
+            forEachR(root, action);
+        }
+
+        private static <K, V> void forEachR(Node<K, V> p, BiConsumer<? super K, ? super V> action) {
+            while (p != null) {
+                forEachR(p.left, action);
+                action.accept(p.key, p.value);
+                p = p.right;
+            }
+        }
+    }
+
+    /**
+     * In-order traversal with an explicit stack, since the nodes have no parent references.
+     * The stack holds the nodes whose left subtree is being visited.
+     */
+    private static class TreeIterator<K extends Comparable<K>, V> implements Iterator<Dictionary.Entry<K, V>> {
+        private final Node<K, V>[] stack;
+        private int top = 0;
+        private final K toKey;                          // null: kein Ende
+        private final Dictionary.Entry<K, V> cursor;    // null: neuer Entry pro next()
+
+        @SuppressWarnings("unchecked")
+        TreeIterator(Node<K, V> root, K fromKey, K toKey, Dictionary.Entry<K, V> cursor) {
+            this.stack = (Node<K, V>[]) new Node<?, ?>[getHigh(root) + 1];
+            this.toKey = toKey;
+            this.cursor = cursor;
+            // Pfad zum kleinsten Schluessel >= fromKey
+            Node<K, V> p = root;
+            while (p != null) {
+                int c = (fromKey == null) ? -1 : fromKey.compareTo(p.key);
+                if (c <= 0) {
+                    stack[top++] = p;
+                    if (c == 0) {
+                        break;
+                    }
+                    p = p.left;
+                } else {
+                    p = p.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0 && (toKey == null || stack[top - 1].key.compareTo(toKey) < 0);
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Node<K, V> q = stack[--top];
+            for (Node<K, V> p = q.right; p != null; p = p.left) {
+                stack[top++] = p;
+            }
+            return (cursor == null) ? new Dictionary.Entry<>(q.key, q.value) : cursor.reset(q.key, q.value);
+        }
+    }
+}
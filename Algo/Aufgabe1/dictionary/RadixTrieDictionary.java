@@ -0,0 +1,295 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Implementation of the Dictionary interface as compressed radix trie (Patricia trie) for String keys.
+ * <p>
+ * Each edge is labelled with a non-empty string; a node with only one child and no entry
+ * is merged with its child, so shared prefixes like "schr" in "schreiben" and "schreien"
+ * are stored only once.
+ * The children of a node are sorted by the first character of their label,
+ * the iterator returns the entries in lexicographic order of the keys (as String.compareTo).
+ * <p>
+ * prefixIterator enumerates all entries whose key starts with a given prefix
+ * in O(|prefix| + k) for k results.
+ *
+ * @param <V> Value.
+ */
+public class RadixTrieDictionary<V> implements Dictionary<String, V> {
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final Node<?>[] NO_CHILDREN = new Node<?>[0];
+
+    private static class Node<V> {
+        String label;           // Kantenbeschriftung vom Elternknoten zu diesem Knoten
+        V value;
+        boolean hasValue = false;
+        char[] first = NO_CHARS;   // erstes Zeichen der Kindbeschriftungen, sortiert
+        @SuppressWarnings("unchecked")
+        Node<V>[] children = (Node<V>[]) NO_CHILDREN;
+        int n = 0;              // Anzahl Kinder
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int childIndex(char c) {
+            return Arrays.binarySearch(first, 0, n, c);
+        }
+
+        void addChild(Node<V> child) {
+            int i = -childIndex(child.label.charAt(0)) - 1;
+            if (n == first.length) {
+                first = Arrays.copyOf(first, Math.max(2, 2 * n));
+                children = Arrays.copyOf(children, Math.max(2, 2 * n));
+            }
+            System.arraycopy(first, i, first, i + 1, n - i);
+            System.arraycopy(children, i, children, i + 1, n - i);
+            first[i] = child.label.charAt(0);
+            children[i] = child;
+            n++;
+        }
+
+        void removeChild(int i) {
+            System.arraycopy(first, i + 1, first, i, n - i - 1);
+            System.arraycopy(children, i + 1, children, i, n - i - 1);
+            n--;
+            children[n] = null;
+        }
+    }
+
+    private final Node<V> root = new Node<>("");
+    private int size = 0;
+
+    private static int commonPrefix(String label, String key, int from) {
+        int m = Math.min(label.length(), key.length() - from);
+        int l = 0;
+        while (l < m && label.charAt(l) == key.charAt(from + l)) {
+            l++;
+        }
+        return l;
+    }
+
+    @Override
+    public V insert(String key, V value) {
+        Node<V> p = root;
+        int i = 0;
+        while (i < key.length()) {
+            int ci = p.childIndex(key.charAt(i));
+            if (ci < 0) {
+                Node<V> leaf = new Node<>(key.substring(i));
+                p.addChild(leaf);
+                p = leaf;
+                break;
+            }
+            Node<V> c = p.children[ci];
+            int l = commonPrefix(c.label, key, i);
+            if (l < c.label.length()) {
+                // Kante von c aufteilen: p -> mid -> c
+                Node<V> mid = new Node<>(c.label.substring(0, l));
+                c.label = c.label.substring(l);
+                mid.addChild(c);
+                p.children[ci] = mid;
+                c = mid;
+            }
+            p = c;
+            i += l;
+        }
+
+        if (p.hasValue) {
+            V oldValue = p.value;
+            p.value = value;
+            return oldValue;
+        }
+        p.value = value;
+        p.hasValue = true;
+        size++;
+        return null;
+    }
+
+    /**
+     * Returns the node whose path spells exactly key, or null.
+     */
+    private Node<V> findNode(String key) {
+        Node<V> p = root;
+        int i = 0;
+        while (i < key.length()) {
+            int ci = p.childIndex(key.charAt(i));
+            if (ci < 0) {
+                return null;
+            }
+            p = p.children[ci];
+            if (!key.startsWith(p.label, i)) {
+                return null;
+            }
+            i += p.label.length();
+        }
+        return p;
+    }
+
+    @Override
+    public V search(String key) {
+        Node<V> p = findNode(key);
+        return (p != null && p.hasValue) ? p.value : null;
+    }
+
+    @Override
+    public V remove(String key) {
+        Node<V> parent = null;
+        int pi = -1;
+        Node<V> p = root;
+        int i = 0;
+        while (i < key.length()) {
+            int ci = p.childIndex(key.charAt(i));
+            if (ci < 0) {
+                return null;
+            }
+            parent = p;
+            pi = ci;
+            p = p.children[ci];
+            if (!key.startsWith(p.label, i)) {
+                return null;
+            }
+            i += p.label.length();
+        }
+        if (!p.hasValue) {
+            return null;
+        }
+
+        V oldValue = p.value;
+        p.value = null;
+        p.hasValue = false;
+        size--;
+
+        // Pfadkompression wiederherstellen
+        if (p != root) {
+            if (p.n == 0) {
+                parent.removeChild(pi);
+                if (parent != root && !parent.hasValue && parent.n == 1) {
+                    mergeWithChild(parent);
+                }
+            } else if (p.n == 1) {
+                mergeWithChild(p);
+            }
+        }
+        return oldValue;
+    }
+
+    /**
+     * Merges a node without entry with its only child.
+     */
+    private static <V> void mergeWithChild(Node<V> p) {
+        Node<V> c = p.children[0];
+        p.label = p.label + c.label;
+        p.value = c.value;
+        p.hasValue = c.hasValue;
+        p.first = c.first;
+        p.children = c.children;
+        p.n = c.n;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<String, V>> iterator() {
+        return new TrieIterator(root, "");
+    }
+
+    /**
+     * Returns an iterator over all entries whose key starts with prefix,
+     * in lexicographic order of the keys.
+     * @param prefix prefix of the keys.
+     * @return an iterator over the entries with the given prefix.
+     */
+    public Iterator<Dictionary.Entry<String, V>> prefixIterator(String prefix) {
+        Node<V> p = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int ci = p.childIndex(prefix.charAt(i));
+            if (ci < 0) {
+                return new TrieIterator(null, prefix);
+            }
+            p = p.children[ci];
+            int l = commonPrefix(p.label, prefix, i);
+            if (l < p.label.length() && i + l < prefix.length()) {
+                return new TrieIterator(null, prefix);
+            }
+            i += p.label.length();
+        }
+        // Das Praefix kann mitten in der Beschriftung von p enden.
+        return new TrieIterator(p, prefix.substring(0, i - p.label.length()) + p.label);
+    }
+
+    /**
+     * Pre-order traversal of a subtree; children in order of their first character.
+     */
+    private class TrieIterator implements Iterator<Dictionary.Entry<String, V>> {
+        private final List<Node<V>> nodes = new ArrayList<>();
+        private int[] childPos = new int[16];    // naechstes zu besuchendes Kind, -1: Knoten selbst
+        private int[] keyLen = new int[16];      // Schluessellaenge bis einschliesslich des Knotens
+        private final StringBuilder key;
+        private Dictionary.Entry<String, V> pending = null;
+
+        TrieIterator(Node<V> start, String startKey) {
+            key = new StringBuilder(startKey);
+            if (start != null) {
+                push(start);
+            }
+            advance();
+        }
+
+        private void push(Node<V> p) {
+            int d = nodes.size();
+            if (d == childPos.length) {
+                childPos = Arrays.copyOf(childPos, 2 * d);
+                keyLen = Arrays.copyOf(keyLen, 2 * d);
+            }
+            nodes.add(p);
+            childPos[d] = -1;
+            keyLen[d] = key.length();
+        }
+
+        private void advance() {
+            pending = null;
+            while (pending == null && !nodes.isEmpty()) {
+                int d = nodes.size() - 1;
+                Node<V> p = nodes.get(d);
+                if (childPos[d] == -1) {
+                    childPos[d] = 0;
+                    if (p.hasValue) {
+                        key.setLength(keyLen[d]);
+                        pending = new Dictionary.Entry<>(key.toString(), p.value);
+                    }
+                } else if (childPos[d] < p.n) {
+                    Node<V> c = p.children[childPos[d]++];
+                    key.setLength(keyLen[d]);
+                    key.append(c.label);
+                    push(c);
+                } else {
+                    nodes.remove(d);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public Dictionary.Entry<String, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Dictionary.Entry<String, V> e = pending;
+            advance();
+            return e;
+        }
+    }
+}
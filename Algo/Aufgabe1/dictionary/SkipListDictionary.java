@@ -0,0 +1,423 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Thread-safe implementation of the OrderedDictionary interface as lock-free skip list
+ * (Herlihy, Shavit: The Art of Multiprocessor Programming, ch. 14.4).
+ * <p>
+ * Every node is linked into level 0 and, with probability p per level, into higher levels.
+ * The links are marked references: an unmarked link refers to the successor directly,
+ * a marked link is a Marked object wrapping the successor and is never changed again
+ * (like an AtomicMarkableReference, but without an extra object per unmarked link).
+ * insert links a new node with compareAndSet,
+ * first at level 0 (which makes it visible) and then at the higher levels.
+ * remove sets the value of the node to null with compareAndSet (which makes it invisible),
+ * marks its links from the top level down and unlinks it;
+ * marked nodes found by a later traversal are unlinked as well.
+ * search, the navigation methods and the iterators never modify the list.
+ * <p>
+ * The iterator is weakly consistent: it returns the entries in ascending key order,
+ * never throws a ConcurrentModificationException,
+ * and may or may not reflect modifications after its creation.
+ * <p>
+ * Neither keys nor values may be null.
+ *
+ * @param <K> Key.
+ * @param <V> Value.
+ */
+public class SkipListDictionary<K extends Comparable<? super K>, V> implements OrderedDictionary<K, V> {
+
+    private static final int MAX_LEVEL = 31;
+    private static final double DEF_PROBABILITY = 0.25;
+
+    private static final class Node<K, V> {
+        final K key;
+        volatile V value;       // null: geloescht
+        final Object[] next;    // Node oder Marked
+
+        Node(K key, V value, int topLevel) {
+            this.key = key;
+            this.value = value;
+            this.next = new Object[topLevel + 1];
+        }
+
+        int topLevel() {
+            return next.length - 1;
+        }
+    }
+
+    // markierter Verweis: der Knoten, der ihn enthaelt, ist geloescht
+    private static final class Marked {
+        final Node<?, ?> node;
+
+        Marked(Node<?, ?> node) {
+            this.node = node;
+        }
+    }
+
+    private static final VarHandle NEXT = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(Node.class, "value", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V> next(Node<K, V> p, int level) {
+        Object o = NEXT.getAcquire(p.next, level);
+        return (Node<K, V>) ((o instanceof Marked) ? ((Marked) o).node : o);
+    }
+
+    private static boolean casNext(Node<?, ?> p, int level, Node<?, ?> expected, Node<?, ?> update) {
+        return NEXT.compareAndSet(p.next, level, expected, update);
+    }
+
+    private static <V> boolean casValue(Node<?, V> p, V expected, V update) {
+        return VALUE.compareAndSet(p, expected, update);
+    }
+
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL);
+    private final Node<K, V> tail = new Node<>(null, null, MAX_LEVEL);
+    private final double probability;
+    private final LongAdder count = new LongAdder();
+    private volatile int maxLevel = 0;     // hoechste benutzte Ebene; Suchen beginnen hier
+
+    public SkipListDictionary() {
+        this(DEF_PROBABILITY);
+    }
+
+    /**
+     * Creates an empty dictionary.
+     * @param probability probability that a node of level i is also linked into level i+1;
+     * smaller values need less memory and longer searches.
+     */
+    public SkipListDictionary(double probability) {
+        if (!(probability > 0 && probability < 1)) {
+            throw new IllegalArgumentException("probability must be in (0, 1)");
+        }
+        this.probability = probability;
+        for (int i = 0; i <= MAX_LEVEL; i++) {
+            head.next[i] = tail;
+        }
+    }
+
+    private int randomLevel() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int level = 0;
+        while (level < MAX_LEVEL && rnd.nextDouble() < probability) {
+            level++;
+        }
+        return level;
+    }
+
+    // tail ist groesser als jeder Schluessel
+    private int compare(K key, Node<K, V> p) {
+        return (p == tail) ? -1 : key.compareTo(p.key);
+    }
+
+    /**
+     * Determines for every level up to top the last node with a key less than key (preds)
+     * and its successor (succs) and unlinks marked nodes on the way.
+     * @return true if succs[0] has the given key.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs, int top) {
+        retry:
+        while (true) {
+            Node<K, V> pred = head;
+            Node<K, V> curr = null;
+            for (int level = top; level >= 0; level--) {
+                curr = next(pred, level);
+                while (true) {
+                    if (curr == tail) {
+                        break;
+                    }
+                    Object succ = NEXT.getAcquire(curr.next, level);
+                    while (succ instanceof Marked) {
+                        Node<K, V> s = (Node<K, V>) ((Marked) succ).node;
+                        if (!casNext(pred, level, curr, s)) {
+                            continue retry;
+                        }
+                        curr = s;
+                        if (curr == tail) {
+                            break;
+                        }
+                        succ = NEXT.getAcquire(curr.next, level);
+                    }
+                    if (compare(key, curr) > 0) {
+                        pred = curr;
+                        curr = (Node<K, V>) succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return compare(key, curr) == 0;
+        }
+    }
+
+    /**
+     * Marks all links of a node, from the top level down to level 0.
+     */
+    private static void markAll(Node<?, ?> p) {
+        for (int level = p.topLevel(); level >= 0; level--) {
+            Object o = NEXT.getAcquire(p.next, level);
+            while (!(o instanceof Marked) && !NEXT.compareAndSet(p.next, level, o, new Marked((Node<?, ?>) o))) {
+                o = NEXT.getAcquire(p.next, level);
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V insert(K key, V value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+        int topLevel = randomLevel();
+        int top = Math.max(topLevel, maxLevel);
+        Node<K, V>[] preds = new Node[top + 1];
+        Node<K, V>[] succs = new Node[top + 1];
+        while (true) {
+            if (find(key, preds, succs, top)) {
+                Node<K, V> p = succs[0];
+                V oldValue;
+                while ((oldValue = p.value) != null) {
+                    if (casValue(p, oldValue, value)) {
+                        return oldValue;
+                    }
+                }
+                // p wird gerade geloescht: beim Loeschen helfen und neu suchen
+                markAll(p);
+                continue;
+            }
+
+            Node<K, V> p = new Node<>(key, value, topLevel);
+            for (int level = 0; level <= topLevel; level++) {
+                p.next[level] = succs[level];
+            }
+            if (!casNext(preds[0], 0, succs[0], p)) {
+                continue;
+            }
+            count.increment();
+            if (topLevel > maxLevel) {
+                // ungeschuetzt: ein zu kleiner Wert macht Suchen nur langsamer, nicht falsch
+                maxLevel = topLevel;
+            }
+
+            for (int level = 1; level <= topLevel; level++) {
+                while (true) {
+                    Node<K, V> succ = succs[level];
+                    Object old = NEXT.getAcquire(p.next, level);
+                    // p wurde inzwischen geloescht
+                    if (old instanceof Marked || (old != succ && !NEXT.compareAndSet(p.next, level, old, succ))) {
+                        return null;
+                    }
+                    if (casNext(preds[level], level, succ, p)) {
+                        break;
+                    }
+                    if (!find(key, preds, succs, top) || succs[0] != p) {
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int top = maxLevel;
+        Node<K, V>[] preds = new Node[top + 1];
+        Node<K, V>[] succs = new Node[top + 1];
+        while (find(key, preds, succs, top)) {
+            Node<K, V> p = succs[0];
+            V oldValue;
+            while ((oldValue = p.value) != null) {
+                if (casValue(p, oldValue, null)) {
+                    count.decrement();
+                    markAll(p);
+                    // p physisch entfernen
+                    if (p.topLevel() > top) {
+                        top = p.topLevel();
+                        preds = new Node[top + 1];
+                        succs = new Node[top + 1];
+                    }
+                    find(key, preds, succs, top);
+                    return oldValue;
+                }
+            }
+            // ein anderer Thread loescht p gerade
+            markAll(p);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the last node whose key is less than key (less than or equal to key, if inclusive),
+     * or head. If live is set, deleted nodes are skipped.
+     * key == null stands for a key greater than all keys.
+     */
+    private Node<K, V> predecessor(K key, boolean inclusive, boolean live) {
+        Node<K, V> pred = head;
+        for (int level = maxLevel; level >= 0; level--) {
+            Node<K, V> curr = next(pred, level);
+            while (curr != tail) {
+                int c = (key == null) ? 1 : key.compareTo(curr.key);
+                if (c < 0 || (c == 0 && !inclusive)) {
+                    break;
+                }
+                if (!live || curr.value != null) {
+                    pred = curr;
+                }
+                curr = next(curr, level);
+            }
+        }
+        return pred;
+    }
+
+    /**
+     * Returns the first node that is not deleted and whose key is greater than or equal to key
+     * (greater than key, if not inclusive), or tail.
+     * key == null stands for a key less than all keys.
+     */
+    private Node<K, V> successor(K key, boolean inclusive) {
+        Node<K, V> p = (key == null) ? head : predecessor(key, !inclusive, false);
+        do {
+            p = next(p, 0);
+        } while (p != tail && (p.value == null || (key != null && !isAfter(p.key, key, inclusive))));
+        return p;
+    }
+
+    private static <K extends Comparable<? super K>> boolean isAfter(K k, K key, boolean inclusive) {
+        int c = k.compareTo(key);
+        return c > 0 || (c == 0 && inclusive);
+    }
+
+    private K keyOf(Node<K, V> p) {
+        return (p == head || p == tail) ? null : p.key;
+    }
+
+    @Override
+    public V search(K key) {
+        Node<K, V> p = successor(key, true);
+        return (p != tail && key.compareTo(p.key) == 0) ? p.value : null;
+    }
+
+    /**
+     * Returns the number of entries.
+     * Under concurrent modification the result is only an estimate.
+     */
+    @Override
+    public int size() {
+        return (int) count.sum();
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOf(successor(null, true));
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOf(predecessor(null, true, true));
+    }
+
+    @Override
+    public K floor(K key) {
+        return keyOf(predecessor(key, true, true));
+    }
+
+    @Override
+    public K ceiling(K key) {
+        return keyOf(successor(key, true));
+    }
+
+    @Override
+    public K higher(K key) {
+        return keyOf(successor(key, false));
+    }
+
+    @Override
+    public K lower(K key) {
+        return keyOf(predecessor(key, false, true));
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> range(K fromKey, K toKey) {
+        return new SkipListIterator(successor(fromKey, true), toKey, null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new SkipListIterator(successor(null, true), null, null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new SkipListIterator(successor(null, true), null, new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Node<K, V> p = next(head, 0); p != tail; p = next(p, 0)) {
+            V value = p.value;
+            if (value != null) {
+                action.accept(p.key, value);
+            }
+        }
+    }
+
+    private class SkipListIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private Node<K, V> p;
+        private V value;                                // Wert von p beim Erreichen
+        private final K toKey;                          // null: kein Ende
+        private final Dictionary.Entry<K, V> cursor;    // null: neuer Entry pro next()
+
+        SkipListIterator(Node<K, V> first, K toKey, Dictionary.Entry<K, V> cursor) {
+            this.p = first;
+            this.toKey = toKey;
+            this.cursor = cursor;
+            if (p != tail) {
+                value = p.value;
+                if (value == null) {
+                    advance();
+                }
+            }
+        }
+
+        private void advance() {
+            do {
+                p = SkipListDictionary.next(p, 0);
+                value = (p == tail) ? null : p.value;
+            } while (p != tail && value == null);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return p != tail && (toKey == null || p.key.compareTo(toKey) < 0);
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            K k = p.key;
+            V v = value;
+            advance();
+            return (cursor == null) ? new Dictionary.Entry<>(k, v) : cursor.reset(k, v);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 import java.lang.reflect.Array;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
-public class SortedArrayDictionary<K extends Comparable<? super K>, V> implements Dictionary<K, V>  {
+public class SortedArrayDictionary<K extends Comparable<? super K>, V> implements OrderedDictionary<K, V>  {
 
     private static class Entry<K, V> {
         private K key;
@@ -15,12 +22,20 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
     }
 
     private static final int DEF_CAPACITY = 16;
+    private static final int MIN_RUN_LENGTH = 8;   // searchAll: mittlere Laenge sortierter Laeufe
     private int size;
     private Entry<K, V>[] data;
+    // Lesemodus (compact): Schluessel und Werte in Eytzinger-Reihenfolge, Index 1 ist die Wurzel; null: aus
+    private Object[] eytzingerKeys = null;
+    private Object[] eytzingerValues = null;
+    private final DictionaryStats stats = DictionaryStats.ENABLED ? new DictionaryStats(this) : null;
 
     public SortedArrayDictionary() {
         size = 0;
         data = new Entry[DEF_CAPACITY];
+        if (DictionaryStats.ENABLED) {
+            stats.setCapacity(data.length);
+        }
     }
 
     private int searchKey(K key) {
@@ -41,6 +56,8 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
 
     @Override
     public V insert(K key, V value) {
+        eytzingerKeys = null;
+        eytzingerValues = null;
         int i = searchKey(key);
 
         // key already exists
@@ -52,7 +69,16 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
 
         // key does not exist
         if (data.length == size) {
+            long start = 0;
+            if (DictionaryStats.ENABLED) {
+                stats.resizeStarted(size, 2 * size);
+                start = System.nanoTime();
+            }
             data = Arrays.copyOf(data, 2 * size);
+            if (DictionaryStats.ENABLED) {
+                stats.addResizeTime(System.nanoTime() - start);
+                stats.resizeFinished();
+            }
         }
         int j = size - 1;
         while (j >= 0 && key.compareTo(data[j].key) < 0) {
@@ -60,12 +86,115 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
             j--;
         }
         data[j + 1] = new Entry<>(key, value);
+        if (DictionaryStats.ENABLED) {
+            stats.recordShift(size - (j + 1));
+        }
         size++;
         return null;
     }
 
+    /**
+     * Builds the sorted array directly in O(n log n) if this dictionary is empty:
+     * the entries are sorted once and duplicate keys are removed (last entry wins).
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void insertAll(Iterable<? extends Dictionary.Entry<K, V>> entries) {
+        if (size > 0) {
+            OrderedDictionary.super.insertAll(entries);
+            return;
+        }
+        eytzingerKeys = null;
+        eytzingerValues = null;
+        List<Entry<K, V>> list = new ArrayList<>();
+        for (Dictionary.Entry<K, V> e : entries) {
+            list.add(new Entry<>(e.getKey(), e.getValue()));
+        }
+        // stabile Sortierung, damit bei gleichen Schluesseln der letzte Eintrag hinten liegt
+        list.sort(Comparator.comparing((Entry<K, V> e) -> e.key));
+
+        data = new Entry[Math.max(DEF_CAPACITY, list.size())];
+        for (Entry<K, V> e : list) {
+            if (size > 0 && e.key.compareTo(data[size - 1].key) == 0) {
+                data[size - 1] = e;
+            } else {
+                data[size++] = e;
+            }
+        }
+        if (DictionaryStats.ENABLED) {
+            stats.setCapacity(data.length);
+        }
+    }
+
+    /**
+     * Switches to a read-optimised layout until the next insert or remove.
+     * <p>
+     * The keys and values are copied into two arrays in Eytzinger order (the breadth-first order
+     * of the implicit balanced search tree: the children of position k are 2k and 2k+1).
+     * search then does one compareTo per level and has no exit for equal keys, so the loop has
+     * a fixed trip count; the keys are read directly from the key array instead of through an Entry.
+     * The top levels of the tree lie next to each other at the front of the array and stay in the cache.
+     * Java has no prefetch instruction. A branch-free step (conditional move) makes every load wait for
+     * the previous comparison and was measured slower than the binary search; with a branch the processor
+     * speculates down the tree and loads the next levels early, which takes the place of the prefetch.
+     * <p>
+     * Navigation, range and iteration keep using the sorted array.
+     * The first insert or remove discards the read-optimised layout.
+     */
+    public void compact() {
+        eytzingerKeys = new Object[size + 1];
+        eytzingerValues = new Object[size + 1];
+        fillEytzinger(0, 1);
+    }
+
+    /**
+     * Fills the subtree of position k with the entries data[i], data[i+1], ... (in-order).
+     * @return the index of the next entry of data.
+     */
+    private int fillEytzinger(int i, int k) {
+        if (k <= size) {
+            i = fillEytzinger(i, 2 * k);
+            eytzingerKeys[k] = data[i].key;
+            eytzingerValues[k] = data[i].value;
+            i = fillEytzinger(i + 1, 2 * k + 1);
+        }
+        return i;
+    }
+
+    /**
+     * Returns true if the read-optimised layout of compact() is in use.
+     * @return true if compact() was called and the dictionary has not been changed since.
+     */
+    public boolean isCompact() {
+        return eytzingerKeys != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V searchEytzinger(K key) {
+        Object[] keys = eytzingerKeys;
+        int n = keys.length - 1;
+        int k = 1;
+        while (k <= n) {
+            // Bewusst mit Verzweigung: die spekulative Ausfuehrung laedt die naechsten Ebenen vorab
+            if (key.compareTo((K) keys[k]) > 0) {
+                k = 2 * k + 1;
+            } else {
+                k = 2 * k;
+            }
+        }
+        // Abstieg rueckgaengig machen: die letzte Linksabzweigung ist der kleinste Schluessel >= key
+        k >>>= Integer.numberOfTrailingZeros(~k) + 1;
+        if (k != 0 && key.compareTo((K) keys[k]) == 0) {
+            return (V) eytzingerValues[k];
+        }
+        return null;
+    }
+
     @Override
     public V search(K key) {
+        if (eytzingerKeys != null) {
+            return searchEytzinger(key);
+        }
         int i = searchKey(key);
         if (i != -1) {
             return data[i].value;
@@ -80,6 +209,11 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
             return null;
         }
         V oldValue = data[i].value;
+        eytzingerKeys = null;
+        eytzingerValues = null;
+        if (DictionaryStats.ENABLED) {
+            stats.recordShift(size - 1 - i);
+        }
         for (int j = i; j < size - 1; j++) {
             data[j] = data[j + 1];
         }
@@ -88,19 +222,228 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
         return oldValue;
     }
 
+    /**
+     * Merges the entries of other into this dictionary in O(n + m) (plus O(m log m) for sorting
+     * the entries of other, if forEach does not deliver them in ascending order).
+     */
     @Override
-    public int size() {
-        return size;
+    @SuppressWarnings("unchecked")
+    public void putAll(Dictionary<K, V> other) {
+        List<Entry<K, V>> list = new ArrayList<>(other.size());
+        other.forEach((k, v) -> list.add(new Entry<>(k, v)));
+        // nur sortieren, wenn forEach die Schluessel nicht schon aufsteigend geliefert hat
+        for (int j = 1; j < list.size(); j++) {
+            if (list.get(j - 1).key.compareTo(list.get(j).key) > 0) {
+                list.sort(Comparator.comparing((Entry<K, V> e) -> e.key));
+                break;
+            }
+        }
+        eytzingerKeys = null;
+        eytzingerValues = null;
+
+        Entry<K, V>[] result = new Entry[Math.max(DEF_CAPACITY, size + list.size())];
+        int i = 0;
+        int n = 0;
+        for (Entry<K, V> e : list) {
+            while (i < size && data[i].key.compareTo(e.key) < 0) {
+                result[n++] = data[i++];
+            }
+            if (i < size && data[i].key.compareTo(e.key) == 0) {
+                data[i].value = e.value;
+            } else if (n > 0 && result[n - 1].key.compareTo(e.key) == 0) {
+                result[n - 1].value = e.value;     // gleicher Schluessel mehrfach in other
+            } else {
+                result[n++] = e;
+            }
+        }
+        while (i < size) {
+            result[n++] = data[i++];
+        }
+        data = result;
+        size = n;
+        if (DictionaryStats.ENABLED) {
+            stats.setCapacity(data.length);
+        }
     }
 
+    /**
+     * Removes the keys in a single compaction pass in O(n + m log m).
+     */
     @Override
-    public Iterator<Dictionary.Entry<K, V>> iterator() {
+    @SuppressWarnings("unchecked")
+    public int removeAll(Collection<? extends K> keys) {
+        K[] sorted = (K[]) keys.toArray(new Comparable[0]);
+        Arrays.sort(sorted);
+        int[] j = {0};     // compactWhere laeuft in Schluesselreihenfolge, daher genuegt ein Zeiger
+        return compactWhere((k, v) -> {
+            while (j[0] < sorted.length && sorted[j[0]].compareTo(k) < 0) {
+                j[0]++;
+            }
+            return j[0] < sorted.length && sorted[j[0]].compareTo(k) == 0;
+        });
+    }
+
+    /**
+     * Removes the entries in a single compaction pass in O(n).
+     */
+    @Override
+    public int removeIf(BiPredicate<? super K, ? super V> filter) {
+        return compactWhere(filter);
+    }
+
+    /**
+     * Moves the entries that are kept to the front of the array; filter is called in key order.
+     * @return the number of removed entries.
+     */
+    private int compactWhere(BiPredicate<? super K, ? super V> filter) {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            if (!filter.test(data[i].key, data[i].value)) {
+                data[n++] = data[i];
+            }
+        }
+        int removed = size - n;
+        if (removed > 0) {
+            Arrays.fill(data, n, size, null);
+            size = n;
+            eytzingerKeys = null;
+            eytzingerValues = null;
+        }
+        return removed;
+    }
+
+    /**
+     * Looks up the keys in ascending order in a single pass over the array:
+     * each key is searched by galloping from the position of the previous key,
+     * which costs O(log d) compares for a distance d instead of a binary search over the whole array.
+     * Keys in random order are searched one after the other,
+     * since sorting them would cost as many compares as the binary searches.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<V> searchAll(List<? extends K> keys) {
+        K[] probes = (K[]) keys.toArray(new Comparable[0]);
+        Integer[] order = probeOrder(probes);
+        if (order == null) {
+            return OrderedDictionary.super.searchAll(keys);
+        }
+        List<V> values = new ArrayList<>(Collections.nCopies(probes.length, null));
+        int pos = 0;
+        for (int i : order) {
+            K key = probes[i];
+            pos = gallop(key, pos);
+            if (pos < size && key.compareTo(data[pos].key) == 0) {
+                values.set(i, data[pos].value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the positions of the probes in ascending order of their keys,
+     * or null if the probes consist of so many ascending runs that sorting does not pay.
+     */
+    private static <K extends Comparable<? super K>> Integer[] probeOrder(K[] probes) {
+        int runs = 1;
+        for (int i = 1; i < probes.length; i++) {
+            if (probes[i - 1].compareTo(probes[i]) > 0) {
+                runs++;
+            }
+        }
+        // Mergesort von r Laeufen kostet O(m log r) Vergleiche
+        if (runs > 1 && runs * MIN_RUN_LENGTH > probes.length) {
+            return null;
+        }
+        Integer[] order = new Integer[probes.length];
+        for (int i = 0; i < probes.length; i++) {
+            order[i] = i;
+        }
+        if (runs > 1) {
+            Arrays.sort(order, (a, b) -> probes[a].compareTo(probes[b]));
+        }
+        return order;
+    }
+
+    /**
+     * Returns the first position i >= from with data[i].key >= key (size, if there is none).
+     * All keys before from must be less than key.
+     */
+    private int gallop(K key, int from) {
+        int li = from;
+        int bound = 1;
+        while (from + bound - 1 < size && data[from + bound - 1].key.compareTo(key) < 0) {
+            li = from + bound;
+            bound *= 2;
+        }
+        return lowerBound(key, li, Math.min(from + bound - 1, size));
+    }
+
+    /**
+     * Returns the first position i with data[i].key >= key (size, if there is none).
+     */
+    private int lowerBound(K key) {
+        return lowerBound(key, 0, size);
+    }
+
+    private int lowerBound(K key, int li, int re) {
+        while (li < re) {
+            int m = (li + re) >>> 1;
+            if (data[m].key.compareTo(key) < 0)
+                li = m + 1;
+            else
+                re = m;
+        }
+        return li;
+    }
+
+    private K keyAt(int i) {
+        return (i >= 0 && i < size) ? data[i].key : null;
+    }
+
+    @Override
+    public K firstKey() {
+        return keyAt(0);
+    }
+
+    @Override
+    public K lastKey() {
+        return keyAt(size - 1);
+    }
+
+    @Override
+    public K floor(K key) {
+        int i = lowerBound(key);
+        if (i < size && data[i].key.compareTo(key) == 0)
+            return data[i].key;
+        return keyAt(i - 1);
+    }
+
+    @Override
+    public K ceiling(K key) {
+        return keyAt(lowerBound(key));
+    }
+
+    @Override
+    public K higher(K key) {
+        int i = lowerBound(key);
+        if (i < size && data[i].key.compareTo(key) == 0)
+            i++;
+        return keyAt(i);
+    }
+
+    @Override
+    public K lower(K key) {
+        return keyAt(lowerBound(key) - 1);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> range(K fromKey, K toKey) {
         return new Iterator<Dictionary.Entry<K, V>>() {
-            private int pos = 0;
+            private int pos = (fromKey != null) ? lowerBound(fromKey) : 0;
 
             @Override
             public boolean hasNext() {
-                return pos < size;
+                return pos < size && (toKey == null || data[pos].key.compareTo(toKey) < 0);
             }
 
             @Override
@@ -113,4 +456,54 @@ public class SortedArrayDictionary<K extends Comparable<? super K>, V> implement
         };
     }
 
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public DictionaryStats stats() {
+        return stats;
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> iterator() {
+        return new ArrayIterator(null);
+    }
+
+    @Override
+    public Iterator<Dictionary.Entry<K, V>> cursor() {
+        return new ArrayIterator(new Dictionary.Entry<>(null, null));
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(data[i].key, data[i].value);
+        }
+    }
+
+    private class ArrayIterator implements Iterator<Dictionary.Entry<K, V>> {
+        private int pos = 0;
+        private final Dictionary.Entry<K, V> cursor;  // null: neuer Entry pro next()
+
+        ArrayIterator(Dictionary.Entry<K, V> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pos < size;
+        }
+
+        @Override
+        public Dictionary.Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new java.util.NoSuchElementException();
+            }
+            Entry<K, V> e = data[pos++];
+            return (cursor == null) ? new Dictionary.Entry<>(e.key, e.value) : cursor.reset(e.key, e.value);
+        }
+    }
+
 }
@@ -0,0 +1,219 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel loader for word-list files with one "key value" pair per line.
+ * <p>
+ * The file is split into newline-aligned chunks, each chunk is memory-mapped
+ * and parsed by a task of a ForkJoinPool.
+ * Like StringTokenizer, tokens are separated by blanks, tabs and line breaks;
+ * lines with fewer than two tokens are skipped, further tokens are ignored.
+ * The file is read as UTF-8.
+ * <p>
+ * The parsed pairs are inserted in file order with one call of insertAll,
+ * so a key occurring more than once gets the value of its last line.
+ */
+public class WordListLoader {
+
+    private static final int MIN_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 1 << 28;
+
+    /**
+     * Statistics of one load.
+     */
+    public static class Result {
+        private final int lines;
+        private final int entries;
+        private final long nanos;
+
+        private Result(int lines, int entries, long nanos) {
+            this.lines = lines;
+            this.entries = entries;
+            this.nanos = nanos;
+        }
+
+        /** Returns the number of lines read. */
+        public int getLines() {return lines;}
+
+        /** Returns the number of key-value pairs passed to the dictionary. */
+        public int getEntries() {return entries;}
+
+        /** Returns the duration of the load in nanoseconds. */
+        public long getNanos() {return nanos;}
+
+        /** Returns the number of lines read per second. */
+        public double getLinesPerSecond() {
+            return nanos == 0 ? 0 : lines * 1e9 / nanos;
+        }
+    }
+
+    // Ergebnis eines Abschnitts: Paare mit der Zeilennummer (relativ zum Abschnitt).
+    private static class Chunk {
+        final List<Dictionary.Entry<String, String>> entries = new ArrayList<>();
+        int[] lineNumbers = new int[64];
+        int lines = 0;
+
+        void add(String key, String value) {
+            if (entries.size() == lineNumbers.length) {
+                lineNumbers = Arrays.copyOf(lineNumbers, 2 * lineNumbers.length);
+            }
+            lineNumbers[entries.size()] = lines;
+            entries.add(new Dictionary.Entry<>(key, value));
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public WordListLoader() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool pool executing the parse tasks.
+     */
+    public WordListLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Reads at most maxLines lines of file and inserts their key-value pairs into dict.
+     * @param file word list.
+     * @param maxLines maximal number of lines to be read.
+     * @param dict dictionary receiving the pairs.
+     * @return statistics of the load.
+     * @throws IOException if the file cannot be read.
+     */
+    public Result load(File file, int maxLines, Dictionary<String, String> dict) throws IOException {
+        long startTime = System.nanoTime();
+        List<Dictionary.Entry<String, String>> entries = new ArrayList<>();
+        int lines = 0;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            List<long[]> chunks = split(channel);
+
+            // Abschnitte werden in Wellen von je parallelism Abschnitten verarbeitet,
+            // damit bei kleinem maxLines nicht die ganze Datei gelesen wird.
+            int wave = Math.max(1, pool.getParallelism());
+            for (int c = 0; c < chunks.size() && lines < maxLines; c += wave) {
+                List<Future<Chunk>> tasks = new ArrayList<>();
+                for (long[] range : chunks.subList(c, Math.min(c + wave, chunks.size()))) {
+                    tasks.add(pool.submit(() -> parse(channel, range[0], range[1])));
+                }
+                for (Future<Chunk> task : tasks) {
+                    Chunk chunk = get(task);
+                    for (int i = 0; i < chunk.entries.size() && lines + chunk.lineNumbers[i] < maxLines; i++) {
+                        entries.add(chunk.entries.get(i));
+                    }
+                    lines = (int) Math.min((long) lines + chunk.lines, maxLines);
+                }
+            }
+        }
+        dict.insertAll(entries);
+        return new Result(lines, entries.size(), System.nanoTime() - startTime);
+    }
+
+    private static Chunk get(Future<Chunk> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Splits the file into ranges [start, end) that end directly after a line break (or at the end of file).
+     */
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long chunkSize = size / (4L * pool.getParallelism());
+        chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = start + chunkSize;
+            if (end >= size) {
+                end = size;
+            } else {
+                // bis hinter den naechsten Zeilenumbruch weiterlesen
+                boolean found = false;
+                while (!found && end < size) {
+                    buf.clear();
+                    int n = channel.read(buf, end);
+                    for (int i = 0; i < n && !found; i++) {
+                        end++;
+                        found = buf.get(i) == '\n';
+                    }
+                }
+            }
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        Chunk chunk = new Chunk();
+        int len = buf.limit();
+        int i = 0;
+        while (i < len) {
+            int eol = i;
+            while (eol < len && buf.get(eol) != '\n') {
+                eol++;
+            }
+            int p = skipBlanks(buf, i, eol);
+            int q = skipToken(buf, p, eol);
+            int r = skipBlanks(buf, q, eol);
+            int s = skipToken(buf, r, eol);
+            if (p < q && r < s) {
+                chunk.add(decode(buf, p, q), decode(buf, r, s));
+            }
+            chunk.lines++;
+            i = eol + 1;
+        }
+        return chunk;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    private static int skipBlanks(ByteBuffer buf, int i, int end) {
+        while (i < end && isBlank(buf.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipToken(ByteBuffer buf, int i, int end) {
+        while (i < end && !isBlank(buf.get(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String decode(ByteBuffer buf, int from, int to) {
+        byte[] b = new byte[to - from];
+        buf.get(from, b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}